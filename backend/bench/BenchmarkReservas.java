@@ -0,0 +1,136 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Benchmark de carga cerrada para POST /api/reservas y GET /api/reservas.
+// Se ejecuta sin compilar: java bench/BenchmarkReservas.java --url http://localhost:8080 --concurrencia 200
+// Cada hilo cliente manda una petición, espera la respuesta y repite hasta agotar la duración.
+public class BenchmarkReservas {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = leerOpciones(args);
+        String url = opciones.getOrDefault("url", "http://localhost:8080");
+        int concurrencia = Integer.parseInt(opciones.getOrDefault("concurrencia", "200"));
+        int segundos = Integer.parseInt(opciones.getOrDefault("segundos", "30"));
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "10"));
+        long idServicio = Long.parseLong(opciones.getOrDefault("servicio", "1"));
+        int duracionMinutos = Integer.parseInt(opciones.getOrDefault("duracion", "60"));
+        LocalDate fechaInicial = LocalDate.parse(opciones.getOrDefault("desde", LocalDate.now().plusYears(1).toString()));
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrencia / 8)))
+                .build();
+
+        // Turnos consecutivos sin superposición para que los POST no choquen con la restricción de la base
+        int turnosPorDia = (12 * 60) / duracionMinutos;
+        AtomicLong secuencia = new AtomicLong();
+        Escenario crear = () -> {
+            long n = secuencia.getAndIncrement();
+            LocalDate fecha = fechaInicial.plusDays(n / turnosPorDia);
+            LocalTime hora = LocalTime.of(8, 0).plusMinutes((n % turnosPorDia) * duracionMinutos);
+            String cuerpo = String.format(
+                    "{\"nombre\":\"Bench %d\",\"telefono\":\"0981%06d\",\"email\":\"bench%d@example.com\"," +
+                    "\"idServicio\":%d,\"fecha\":\"%s\",\"hora\":\"%s\"}",
+                    n, n % 1_000_000, n % 5000, idServicio, fecha, hora);
+            return HttpRequest.newBuilder(URI.create(url + "/api/reservas"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                    .build();
+        };
+        Escenario listar = () -> HttpRequest.newBuilder(URI.create(url + "/api/reservas?limite=50"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        System.out.printf("Objetivo %s, %d clientes concurrentes, %ds por escenario%n", url, concurrencia, segundos);
+        ejecutar(cliente, "GET  /api/reservas (calentamiento)", listar, concurrencia, calentamiento, false);
+        ejecutar(cliente, "POST /api/reservas", crear, concurrencia, segundos, true);
+        ejecutar(cliente, "GET  /api/reservas", listar, concurrencia, segundos, true);
+        System.exit(0);
+    }
+
+    interface Escenario {
+        HttpRequest siguiente();
+    }
+
+    private static void ejecutar(HttpClient cliente, String nombre, Escenario escenario,
+                                 int concurrencia, int segundos, boolean informar) throws InterruptedException {
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        long[][] latenciasPorHilo = new long[concurrencia][];
+        AtomicLong errores = new AtomicLong();
+        AtomicLong conflictos = new AtomicLong();
+        CountDownLatch terminados = new CountDownLatch(concurrencia);
+        ExecutorService hilos = Executors.newFixedThreadPool(concurrencia);
+
+        for (int h = 0; h < concurrencia; h++) {
+            long[][] latencias = {new long[1024]};
+            int[] cantidad = {0};
+            int indice = h;
+            hilos.execute(() -> {
+                try {
+                    while (System.nanoTime() < fin) {
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(escenario.siguiente(), HttpResponse.BodyHandlers.discarding());
+                            if (respuesta.statusCode() == 409) {
+                                conflictos.incrementAndGet();
+                            } else if (respuesta.statusCode() >= 400) {
+                                errores.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errores.incrementAndGet();
+                        }
+                        if (cantidad[0] == latencias[0].length) {
+                            latencias[0] = Arrays.copyOf(latencias[0], cantidad[0] * 2);
+                        }
+                        latencias[0][cantidad[0]++] = System.nanoTime() - inicio;
+                    }
+                } finally {
+                    latenciasPorHilo[indice] = Arrays.copyOf(latencias[0], cantidad[0]);
+                    terminados.countDown();
+                }
+            });
+        }
+        terminados.await();
+        hilos.shutdown();
+
+        if (!informar) {
+            return;
+        }
+        long[] todas = Arrays.stream(latenciasPorHilo).flatMapToLong(Arrays::stream).sorted().toArray();
+        if (todas.length == 0) {
+            System.out.printf("%-22s sin respuestas%n", nombre);
+            return;
+        }
+        System.out.printf("%-22s %8d pet  %9.1f pet/s  p50 %7.1f ms  p99 %7.1f ms  max %7.1f ms  errores %d  409 %d%n",
+                nombre, todas.length, todas.length / (double) segundos,
+                percentil(todas, 0.50), percentil(todas, 0.99), todas[todas.length - 1] / 1e6,
+                errores.get(), conflictos.get());
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        int i = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(i, ordenadas.length - 1))] / 1e6;
+    }
+
+    private static Map<String, String> leerOpciones(String[] args) {
+        Map<String, String> opciones = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opciones.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opciones;
+    }
+}
@@ -2,8 +2,10 @@ package com.reservas;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class SistemaReservasApplication {
     public static void main(String[] args) {
         SpringApplication.run(SistemaReservasApplication.class, args);
@@ -0,0 +1,29 @@
+package com.reservas.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate lo instancia por nombre de clase (hibernate.session_factory.statement_inspector);
+// solo cuenta las sentencias del hilo actual para que MetricasPeticionFilter las asocie a la petición
+public class ContadorSentenciasInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> SENTENCIAS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] contador = SENTENCIAS.get();
+        if (contador != null) {
+            contador[0]++;
+        }
+        return sql;
+    }
+
+    static void iniciar() {
+        SENTENCIAS.set(new int[1]);
+    }
+
+    static int finalizar() {
+        int[] contador = SENTENCIAS.get();
+        SENTENCIAS.remove();
+        return contador != null ? contador[0] : 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.reservas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+// Solo se activa si hay una réplica configurada; sin app.datasource.replica.url queda el datasource único de Spring Boot
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    private RuteoLecturaDataSource ruteo;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        // Si la réplica cae, el fallback al primario tiene que ser rápido
+        dataSource.setConnectionTimeout(2000);
+        // Arranca aunque la réplica no esté levantada; el chequeo periódico la habilita cuando responda
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    // LazyConnectionDataSourceProxy: la conexión real se pide en la primera sentencia, cuando la
+    // transacción ya está marcada como readOnly, y no al abrirla
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primarioDataSource") DataSource primario,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 @Value("${app.datasource.replica.retraso-maximo-ms:5000}") long retrasoMaximoMs,
+                                 MeterRegistry meterRegistry) {
+        ruteo = new RuteoLecturaDataSource(primario, replica, retrasoMaximoMs);
+        ruteo.afterPropertiesSet();
+        ruteo.verificarReplica();
+
+        Gauge.builder("datasource.replica.disponible", ruteo, r -> r.isReplicaDisponible() ? 1 : 0)
+                .description("1 si las lecturas de solo lectura se están enviando a la réplica")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.retraso", ruteo, RuteoLecturaDataSource::getRetrasoMs)
+                .description("Retraso de replicación medido en milisegundos (-1 si no responde)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return new LazyConnectionDataSourceProxy(ruteo);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.chequeo-ms:5000}")
+    public void verificarReplica() {
+        if (ruteo != null) {
+            ruteo.verificarReplica();
+        }
+    }
+}
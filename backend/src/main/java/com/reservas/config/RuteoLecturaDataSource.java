@@ -0,0 +1,135 @@
+package com.reservas.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+// Manda las transacciones de solo lectura a la réplica y todo lo demás al primario.
+// Si la réplica no responde o está más atrasada que la tolerancia configurada, también usa el primario.
+public class RuteoLecturaDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(RuteoLecturaDataSource.class);
+
+    private static final String PRIMARIO = "primario";
+    private static final String REPLICA = "replica";
+
+    // Spring Data abre sola una transacción readOnly en findAll/findById/count; esas lecturas suelen ser
+    // parte de un flujo de escritura (buscar y guardar), así que no se desvían a la réplica
+    private static final String TRANSACCIONES_REPOSITORIO = "org.springframework.data.";
+
+    // En réplicas físicas de PostgreSQL: si quedó WAL recibido sin aplicar y el tiempo desde la última transacción
+    // aplicada. Una base que no es réplica (otra instancia local para pruebas) nunca está atrasada.
+    private static final String SQL_RETRASO =
+            "SELECT pg_is_in_recovery() AND COALESCE(pg_last_wal_receive_lsn() <> pg_last_wal_replay_lsn(), true), " +
+            "COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)";
+
+    private final DataSource primario;
+    private final DataSource replica;
+    private final long retrasoMaximoMs;
+
+    private volatile boolean replicaDisponible;
+    private volatile long retrasoMs = -1;
+    // Primer chequeo en que se la vio atrasada; 0 mientras esté al día
+    private volatile long atrasadaDesde;
+
+    public RuteoLecturaDataSource(DataSource primario, DataSource replica, long retrasoMaximoMs) {
+        this.primario = primario;
+        this.replica = replica;
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        setTargetDataSources(Map.of(PRIMARIO, primario, REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return usarReplica() ? REPLICA : PRIMARIO;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!usarReplica()) {
+            return primario.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            marcarNoDisponible(e);
+            return primario.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (!usarReplica()) {
+            return primario.getConnection(username, password);
+        }
+        try {
+            return replica.getConnection(username, password);
+        } catch (SQLException e) {
+            marcarNoDisponible(e);
+            return primario.getConnection(username, password);
+        }
+    }
+
+    public void verificarReplica() {
+        try (Connection conexion = replica.getConnection();
+             Statement statement = conexion.createStatement();
+             ResultSet rs = statement.executeQuery(SQL_RETRASO)) {
+            rs.next();
+            long retraso = 0;
+            if (rs.getBoolean(1)) {
+                // Tras un rato sin escrituras la última transacción aplicada es vieja y el primer cambio que llega
+                // parece un retraso de minutos: se acota por el tiempo que lleva atrasada según estos chequeos
+                long ahora = System.currentTimeMillis();
+                if (atrasadaDesde == 0) {
+                    atrasadaDesde = ahora;
+                }
+                retraso = Math.min((long) rs.getDouble(2), ahora - atrasadaDesde);
+            } else {
+                atrasadaDesde = 0;
+            }
+            boolean disponible = retraso <= retrasoMaximoMs;
+            if (disponible != replicaDisponible) {
+                log.info(disponible ? "Réplica disponible para lecturas (retraso {} ms)"
+                        : "Réplica con retraso de {} ms: las lecturas van al primario", retraso);
+            }
+            retrasoMs = retraso;
+            replicaDisponible = disponible;
+        } catch (SQLException e) {
+            marcarNoDisponible(e);
+        }
+    }
+
+    public boolean isReplicaDisponible() {
+        return replicaDisponible;
+    }
+
+    public long getRetrasoMs() {
+        return retrasoMs;
+    }
+
+    private boolean usarReplica() {
+        if (!replicaDisponible || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        String transaccion = TransactionSynchronizationManager.getCurrentTransactionName();
+        return transaccion == null || !transaccion.startsWith(TRANSACCIONES_REPOSITORIO);
+    }
+
+    private void marcarNoDisponible(SQLException e) {
+        if (replicaDisponible) {
+            log.warn("Réplica no disponible, las lecturas van al primario: {}", e.getMessage());
+        }
+        replicaDisponible = false;
+        retrasoMs = -1;
+        atrasadaDesde = 0;
+    }
+}
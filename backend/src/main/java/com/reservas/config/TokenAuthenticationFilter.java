@@ -0,0 +1,44 @@
+package com.reservas.config;
+
+import com.reservas.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Autentica la petición a partir del token Bearer sin consultar la base: la firma y el payload
+// alcanzan para saber quién es y con qué rol. Un token inválido deja la petición como anónima.
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String PREFIJO = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String cabecera = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (cabecera != null && cabecera.startsWith(PREFIJO)) {
+            tokenService.verificar(cabecera.substring(PREFIJO.length())).ifPresent(sesion -> {
+                UsernamePasswordAuthenticationToken autenticacion = new UsernamePasswordAuthenticationToken(
+                        sesion.getIdUsuario(), null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + sesion.getRol().name())));
+                autenticacion.setDetails(sesion);
+                SecurityContextHolder.getContext().setAuthentication(autenticacion);
+            });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
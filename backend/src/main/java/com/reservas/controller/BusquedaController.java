@@ -0,0 +1,30 @@
+package com.reservas.controller;
+
+import com.reservas.service.BusquedaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/buscar")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class BusquedaController {
+
+    @Autowired
+    private BusquedaService busquedaService;
+
+    @GetMapping
+    public ResponseEntity<?> buscar(
+            @RequestParam String q,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer limite) {
+        try {
+            return ResponseEntity.ok(busquedaService.buscar(q, tipo, pagina, limite));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+}
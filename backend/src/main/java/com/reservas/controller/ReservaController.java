@@ -1,17 +1,35 @@
 package com.reservas.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.dto.ImportacionResponse;
+import com.reservas.dto.LoteReservasRequest;
+import com.reservas.dto.PaginaReservasResponse;
 import com.reservas.dto.ReservaRequest;
 import com.reservas.dto.ReservaResponse;
+import com.reservas.exception.ClaveIdempotenciaException;
+import com.reservas.exception.HorarioNoDisponibleException;
+import com.reservas.service.EventosReservasService;
+import com.reservas.service.ExportacionReservasService;
+import com.reservas.service.IdempotenciaService;
+import com.reservas.service.ImportacionReservasService;
 import com.reservas.service.ReservaService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,32 +40,126 @@ public class ReservaController {
     @Autowired
     private ReservaService reservaService;
 
+    @Autowired
+    private EventosReservasService eventosReservasService;
+
+    @Autowired
+    private ImportacionReservasService importacionReservasService;
+
+    @Autowired
+    private ExportacionReservasService exportacionReservasService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public static final String HEADER_IDEMPOTENCIA = "Idempotency-Key";
+    public static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    // Con Idempotency-Key un reintento devuelve la reserva ya creada en lugar de crear otra
     @PostMapping
-    public ResponseEntity<?> crearReserva(@Valid @RequestBody ReservaRequest request) {
+    public ResponseEntity<?> crearReserva(
+            @Valid @RequestBody ReservaRequest request,
+            @RequestHeader(value = HEADER_IDEMPOTENCIA, required = false) String claveIdempotencia) {
         try {
-            ReservaResponse reserva = reservaService.crearReserva(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
+            if (claveIdempotencia == null) {
+                ReservaResponse reserva = reservaService.crearReserva(request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(reserva);
+            }
+            IdempotenciaService.Resultado<ReservaResponse> resultado = idempotenciaService.ejecutar(
+                    claveIdempotencia, request, ReservaResponse.class, () -> reservaService.crearReserva(request));
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(HttpStatus.CREATED);
+            if (resultado.isRepetida()) {
+                respuesta.header(HEADER_REPETIDA, "true");
+            }
+            return respuesta.body(resultado.getValor());
+        } catch (ClaveIdempotenciaException e) {
+            HttpStatus estado = e.isEnCurso() ? HttpStatus.CONFLICT : HttpStatus.UNPROCESSABLE_ENTITY;
+            return ResponseEntity.status(estado).body(Map.of("message", e.getMessage()));
+        } catch (HorarioNoDisponibleException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "Error al crear la reserva: " + e.getMessage()));
         }
     }
 
+    public static final String HEADER_SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+
     @GetMapping
-    public ResponseEntity<List<ReservaResponse>> obtenerReservas(
+    public ResponseEntity<?> obtenerReservas(
             @RequestParam(required = false) String estado,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha) {
-        
-        List<ReservaResponse> reservas;
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fecha,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
         
         if (estado != null) {
-            reservas = reservaService.obtenerReservasPorEstado(estado);
+            return ResponseEntity.ok(reservaService.obtenerReservasPorEstado(estado));
         } else if (fecha != null) {
-            reservas = reservaService.obtenerReservasPorFecha(fecha);
-        } else {
-            reservas = reservaService.obtenerTodasLasReservas();
+            return ResponseEntity.ok(reservaService.obtenerReservasPorFecha(fecha));
         }
         
-        return ResponseEntity.ok(reservas);
+        // Sin filtros el listado se pagina por cursor; el token de la página siguiente viaja en un header
+        try {
+            PaginaReservasResponse pagina = reservaService.obtenerPaginaReservas(cursor, limite);
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (pagina.getSiguienteCursor() != null) {
+                respuesta.header(HEADER_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+            }
+            return respuesta.body(pagina.getReservas());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirEventos() {
+        return eventosReservasService.suscribir();
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarReservas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = ExportacionReservasService.FORMATO_CSV) String formato) {
+        return descarga("reservas", desde, hasta, formato,
+                salida -> exportacionReservasService.exportar(desde, hasta, formato, salida));
+    }
+
+    // Meses archivados fuera de la tabla viva; mismo formato que /export
+    @GetMapping("/historico")
+    public ResponseEntity<StreamingResponseBody> exportarHistorico(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = ExportacionReservasService.FORMATO_CSV) String formato) {
+        return descarga("reservas_historico", desde, hasta, formato,
+                salida -> exportacionReservasService.exportarHistorico(desde, hasta, formato, salida));
+    }
+
+    // El tipo del cuerpo tiene que ser StreamingResponseBody en la firma para que Spring lo escriba en streaming;
+    // por eso los errores también se devuelven como cuerpo en streaming con el mismo JSON {"message": ...}
+    private ResponseEntity<StreamingResponseBody> descarga(String prefijo, LocalDate desde, LocalDate hasta, String formato,
+                                                           StreamingResponseBody cuerpo) {
+        if (hasta.isBefore(desde)) {
+            return errorDescarga("La fecha 'hasta' no puede ser anterior a 'desde'");
+        }
+        if (!ExportacionReservasService.formatoValido(formato)) {
+            return errorDescarga("Formato no soportado: " + formato);
+        }
+
+        boolean csv = ExportacionReservasService.FORMATO_CSV.equals(formato);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(prefijo + "_" + desde + "_" + hasta + "." + formato).build().toString())
+                .body(cuerpo);
+    }
+
+    private ResponseEntity<StreamingResponseBody> errorDescarga(String mensaje) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(salida -> objectMapper.writeValue(salida, Map.of("message", mensaje)));
     }
 
     @GetMapping("/{id}")
@@ -57,6 +169,37 @@ public class ReservaController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/lote")
+    public ResponseEntity<?> actualizarEstadoEnLote(@Valid @RequestBody LoteReservasRequest request) {
+        String nuevoEstado;
+        if ("confirmar".equalsIgnoreCase(request.getAccion())) {
+            nuevoEstado = "Confirmada";
+        } else if ("rechazar".equalsIgnoreCase(request.getAccion())) {
+            nuevoEstado = "Rechazada";
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("message", "La acción debe ser 'confirmar' o 'rechazar'"));
+        }
+
+        try {
+            return ResponseEntity.ok(reservaService.actualizarEstadoEnLote(request.getIds(), nuevoEstado, request.getEmailGestor()));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Alguna reserva del lote se superpone con otra reserva activa"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error al procesar el lote: " + e.getMessage()));
+        }
+    }
+
+    // Cuerpo CSV crudo (no multipart) para leerlo en streaming sin pasar por un archivo temporal
+    @PostMapping(value = "/importar", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<?> importarReservas(HttpServletRequest request) {
+        try {
+            ImportacionResponse resultado = importacionReservasService.importar(request.getInputStream());
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Error al importar las reservas: " + e.getMessage()));
+        }
+    }
+
     @PutMapping("/{id}/confirmar")
     public ResponseEntity<ReservaResponse> confirmarReserva(
             @PathVariable Long id,
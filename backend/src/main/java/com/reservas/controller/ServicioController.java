@@ -1,14 +1,20 @@
 package com.reservas.controller;
 
+import com.reservas.dto.CatalogoServicios;
 import com.reservas.dto.ServicioRequest;
 import com.reservas.dto.ServicioResponse;
+import com.reservas.exception.ServicioNoEncontradoException;
 import com.reservas.service.ServicioService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
 
 @RestController
@@ -16,18 +22,26 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
 public class ServicioController {
 
+    private static final int MAX_DIAS_DISPONIBILIDAD = 31;
+
     @Autowired
     private ServicioService servicioService;
 
     @GetMapping
-    public ResponseEntity<List<ServicioResponse>> obtenerServicios(
+    public ResponseEntity<?> obtenerServicios(
             @RequestParam(defaultValue = "true") boolean soloActivos) {
         
-        List<ServicioResponse> servicios = soloActivos ? 
-            servicioService.obtenerServiciosActivos() : 
-            servicioService.obtenerTodosLosServicios();
-            
-        return ResponseEntity.ok(servicios);
+        if (!soloActivos) {
+            return ResponseEntity.ok(servicioService.obtenerTodosLosServicios());
+        }
+        
+        // Catálogo público: bytes ya serializados; Spring responde 304 si If-None-Match coincide con el ETag
+        CatalogoServicios catalogo = servicioService.obtenerCatalogoActivo();
+        return ResponseEntity.ok()
+                .eTag(catalogo.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogo.getJson());
     }
 
     @GetMapping("/{id}")
@@ -37,6 +51,24 @@ public class ServicioController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/disponibilidad")
+    public ResponseEntity<?> obtenerDisponibilidad(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate inicio = desde != null ? desde : LocalDate.now();
+        LocalDate fin = hasta != null ? hasta : inicio;
+        if (fin.isBefore(inicio) || ChronoUnit.DAYS.between(inicio, fin) >= MAX_DIAS_DISPONIBILIDAD) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "El rango debe ser de 1 a " + MAX_DIAS_DISPONIBILIDAD + " días"));
+        }
+        try {
+            return ResponseEntity.ok(servicioService.obtenerDisponibilidad(id, inicio, fin));
+        } catch (ServicioNoEncontradoException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> crearServicio(@Valid @RequestBody ServicioRequest request) {
         try {
@@ -62,7 +94,7 @@ public class ServicioController {
         try {
             servicioService.eliminarServicio(id);
             return ResponseEntity.noContent().build();
-        } catch (Exception e) {
+        } catch (ServicioNoEncontradoException e) {
             return ResponseEntity.notFound().build();
         }
     }
@@ -1,11 +1,14 @@
 package com.reservas.controller;
 
+import com.reservas.dto.RankingGestorResponse;
 import com.reservas.dto.UsuarioRequest;
 import com.reservas.dto.UsuarioResponse;
 import com.reservas.entity.Usuario;
+import com.reservas.exception.DemasiadosIntentosException;
 import com.reservas.service.UsuarioService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -49,6 +52,12 @@ public class UsuarioController {
         return ResponseEntity.ok(usuarios);
     }
 
+    @GetMapping("/ranking-gestores")
+    public ResponseEntity<List<RankingGestorResponse>> obtenerRankingGestores(
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(usuarioService.obtenerRankingGestores(Math.min(limite, 100)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UsuarioResponse> obtenerUsuarioPorId(@PathVariable Long id) {
         return usuarioService.obtenerUsuarioPorId(id)
@@ -61,6 +70,8 @@ public class UsuarioController {
         try {
             UsuarioResponse nuevoUsuario = usuarioService.crearUsuario(request);
             return ResponseEntity.ok(nuevoUsuario);
+        } catch (DemasiadosIntentosException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", "Error al crear el usuario: " + e.getMessage()));
         }
@@ -71,6 +82,8 @@ public class UsuarioController {
         try {
             UsuarioResponse usuarioActualizado = usuarioService.actualizarUsuario(id, request);
             return ResponseEntity.ok(usuarioActualizado);
+        } catch (DemasiadosIntentosException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", "Error al actualizar el usuario: " + e.getMessage()));
         }
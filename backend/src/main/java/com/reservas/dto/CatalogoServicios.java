@@ -0,0 +1,19 @@
+package com.reservas.dto;
+
+// Catálogo público ya serializado a JSON, con su ETag fuerte
+public class CatalogoServicios {
+    private final byte[] json;
+    private final String etag;
+    private final long creadoEn;
+
+    public CatalogoServicios(byte[] json, String etag, long creadoEn) {
+        this.json = json;
+        this.etag = etag;
+        this.creadoEn = creadoEn;
+    }
+
+    // Getters
+    public byte[] getJson() { return json; }
+    public String getEtag() { return etag; }
+    public long getCreadoEn() { return creadoEn; }
+}
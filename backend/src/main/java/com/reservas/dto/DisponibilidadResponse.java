@@ -0,0 +1,29 @@
+package com.reservas.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class DisponibilidadResponse {
+    private LocalDate fecha;
+    private Integer duracionMinutos;
+    private List<LocalTime> horariosLibres;
+
+    public DisponibilidadResponse() {}
+
+    public DisponibilidadResponse(LocalDate fecha, Integer duracionMinutos, List<LocalTime> horariosLibres) {
+        this.fecha = fecha;
+        this.duracionMinutos = duracionMinutos;
+        this.horariosLibres = horariosLibres;
+    }
+
+    // Getters y Setters
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public Integer getDuracionMinutos() { return duracionMinutos; }
+    public void setDuracionMinutos(Integer duracionMinutos) { this.duracionMinutos = duracionMinutos; }
+
+    public List<LocalTime> getHorariosLibres() { return horariosLibres; }
+    public void setHorariosLibres(List<LocalTime> horariosLibres) { this.horariosLibres = horariosLibres; }
+}
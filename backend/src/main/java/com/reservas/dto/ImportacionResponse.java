@@ -0,0 +1,57 @@
+package com.reservas.dto;
+
+import java.util.List;
+
+public class ImportacionResponse {
+    private long lineasProcesadas;
+    private long reservasCreadas;
+    private long clientesCreados;
+    private long totalErrores;
+    private List<ErrorLinea> errores;
+
+    public ImportacionResponse() {}
+
+    public ImportacionResponse(long lineasProcesadas, long reservasCreadas, long clientesCreados,
+                               long totalErrores, List<ErrorLinea> errores) {
+        this.lineasProcesadas = lineasProcesadas;
+        this.reservasCreadas = reservasCreadas;
+        this.clientesCreados = clientesCreados;
+        this.totalErrores = totalErrores;
+        this.errores = errores;
+    }
+
+    public static class ErrorLinea {
+        private long linea;
+        private String mensaje;
+
+        public ErrorLinea() {}
+
+        public ErrorLinea(long linea, String mensaje) {
+            this.linea = linea;
+            this.mensaje = mensaje;
+        }
+
+        // Getters y Setters
+        public long getLinea() { return linea; }
+        public void setLinea(long linea) { this.linea = linea; }
+
+        public String getMensaje() { return mensaje; }
+        public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+    }
+
+    // Getters y Setters
+    public long getLineasProcesadas() { return lineasProcesadas; }
+    public void setLineasProcesadas(long lineasProcesadas) { this.lineasProcesadas = lineasProcesadas; }
+
+    public long getReservasCreadas() { return reservasCreadas; }
+    public void setReservasCreadas(long reservasCreadas) { this.reservasCreadas = reservasCreadas; }
+
+    public long getClientesCreados() { return clientesCreados; }
+    public void setClientesCreados(long clientesCreados) { this.clientesCreados = clientesCreados; }
+
+    public long getTotalErrores() { return totalErrores; }
+    public void setTotalErrores(long totalErrores) { this.totalErrores = totalErrores; }
+
+    public List<ErrorLinea> getErrores() { return errores; }
+    public void setErrores(List<ErrorLinea> errores) { this.errores = errores; }
+}
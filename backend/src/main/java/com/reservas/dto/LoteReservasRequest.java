@@ -0,0 +1,30 @@
+package com.reservas.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class LoteReservasRequest {
+
+    @NotEmpty(message = "Debe indicar al menos una reserva")
+    @Size(max = 500, message = "El lote no puede superar las 500 reservas")
+    private List<Long> ids;
+
+    @NotBlank(message = "La acción es obligatoria")
+    private String accion;
+
+    private String emailGestor;
+
+    public LoteReservasRequest() {}
+
+    // Getters y Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public String getAccion() { return accion; }
+    public void setAccion(String accion) { this.accion = accion; }
+
+    public String getEmailGestor() { return emailGestor; }
+    public void setEmailGestor(String emailGestor) { this.emailGestor = emailGestor; }
+}
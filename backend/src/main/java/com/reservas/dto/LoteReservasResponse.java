@@ -0,0 +1,46 @@
+package com.reservas.dto;
+
+import java.util.List;
+
+public class LoteReservasResponse {
+    private int actualizadas;
+    private List<ResultadoReserva> resultados;
+
+    public LoteReservasResponse() {}
+
+    public LoteReservasResponse(int actualizadas, List<ResultadoReserva> resultados) {
+        this.actualizadas = actualizadas;
+        this.resultados = resultados;
+    }
+
+    public static class ResultadoReserva {
+        private Long idReserva;
+        private String resultado;
+        private String estado;
+
+        public ResultadoReserva() {}
+
+        public ResultadoReserva(Long idReserva, String resultado, String estado) {
+            this.idReserva = idReserva;
+            this.resultado = resultado;
+            this.estado = estado;
+        }
+
+        // Getters y Setters
+        public Long getIdReserva() { return idReserva; }
+        public void setIdReserva(Long idReserva) { this.idReserva = idReserva; }
+
+        public String getResultado() { return resultado; }
+        public void setResultado(String resultado) { this.resultado = resultado; }
+
+        public String getEstado() { return estado; }
+        public void setEstado(String estado) { this.estado = estado; }
+    }
+
+    // Getters y Setters
+    public int getActualizadas() { return actualizadas; }
+    public void setActualizadas(int actualizadas) { this.actualizadas = actualizadas; }
+
+    public List<ResultadoReserva> getResultados() { return resultados; }
+    public void setResultados(List<ResultadoReserva> resultados) { this.resultados = resultados; }
+}
@@ -0,0 +1,44 @@
+package com.reservas.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Fila reclamada de notificaciones_salida, tal como la recibe el EnviadorNotificaciones
+public class NotificacionReserva {
+    private final Long idNotificacion;
+    private final Long idReserva;
+    private final String tipo;
+    private final String email;
+    private final String nombre;
+    private final String telefono;
+    private final String nombreServicio;
+    private final LocalDate fecha;
+    private final LocalTime hora;
+    private final int intentos;
+
+    public NotificacionReserva(Long idNotificacion, Long idReserva, String tipo, String email, String nombre,
+                               String telefono, String nombreServicio, LocalDate fecha, LocalTime hora, int intentos) {
+        this.idNotificacion = idNotificacion;
+        this.idReserva = idReserva;
+        this.tipo = tipo;
+        this.email = email;
+        this.nombre = nombre;
+        this.telefono = telefono;
+        this.nombreServicio = nombreServicio;
+        this.fecha = fecha;
+        this.hora = hora;
+        this.intentos = intentos;
+    }
+
+    // Getters
+    public Long getIdNotificacion() { return idNotificacion; }
+    public Long getIdReserva() { return idReserva; }
+    public String getTipo() { return tipo; }
+    public String getEmail() { return email; }
+    public String getNombre() { return nombre; }
+    public String getTelefono() { return telefono; }
+    public String getNombreServicio() { return nombreServicio; }
+    public LocalDate getFecha() { return fecha; }
+    public LocalTime getHora() { return hora; }
+    public int getIntentos() { return intentos; }
+}
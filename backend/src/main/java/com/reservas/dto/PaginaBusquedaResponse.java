@@ -0,0 +1,27 @@
+package com.reservas.dto;
+
+import java.util.List;
+
+public class PaginaBusquedaResponse {
+    private List<ResultadoBusquedaResponse> resultados;
+    private int pagina;
+    private boolean haySiguiente;
+
+    public PaginaBusquedaResponse() {}
+
+    public PaginaBusquedaResponse(List<ResultadoBusquedaResponse> resultados, int pagina, boolean haySiguiente) {
+        this.resultados = resultados;
+        this.pagina = pagina;
+        this.haySiguiente = haySiguiente;
+    }
+
+    // Getters y Setters
+    public List<ResultadoBusquedaResponse> getResultados() { return resultados; }
+    public void setResultados(List<ResultadoBusquedaResponse> resultados) { this.resultados = resultados; }
+
+    public int getPagina() { return pagina; }
+    public void setPagina(int pagina) { this.pagina = pagina; }
+
+    public boolean isHaySiguiente() { return haySiguiente; }
+    public void setHaySiguiente(boolean haySiguiente) { this.haySiguiente = haySiguiente; }
+}
@@ -0,0 +1,22 @@
+package com.reservas.dto;
+
+import java.util.List;
+
+public class PaginaReservasResponse {
+    private List<ReservaResponse> reservas;
+    private String siguienteCursor;
+
+    public PaginaReservasResponse() {}
+
+    public PaginaReservasResponse(List<ReservaResponse> reservas, String siguienteCursor) {
+        this.reservas = reservas;
+        this.siguienteCursor = siguienteCursor;
+    }
+
+    // Getters y Setters
+    public List<ReservaResponse> getReservas() { return reservas; }
+    public void setReservas(List<ReservaResponse> reservas) { this.reservas = reservas; }
+
+    public String getSiguienteCursor() { return siguienteCursor; }
+    public void setSiguienteCursor(String siguienteCursor) { this.siguienteCursor = siguienteCursor; }
+}
@@ -0,0 +1,30 @@
+package com.reservas.dto;
+
+public class RankingGestorResponse {
+    private Long idUsuario;
+    private String nombre;
+    private String email;
+    private Long totalReservasGestionadas;
+
+    public RankingGestorResponse() {}
+
+    public RankingGestorResponse(Long idUsuario, String nombre, String email, Long totalReservasGestionadas) {
+        this.idUsuario = idUsuario;
+        this.nombre = nombre;
+        this.email = email;
+        this.totalReservasGestionadas = totalReservasGestionadas;
+    }
+
+    // Getters y Setters
+    public Long getIdUsuario() { return idUsuario; }
+    public void setIdUsuario(Long idUsuario) { this.idUsuario = idUsuario; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Long getTotalReservasGestionadas() { return totalReservasGestionadas; }
+    public void setTotalReservasGestionadas(Long totalReservasGestionadas) { this.totalReservasGestionadas = totalReservasGestionadas; }
+}
@@ -0,0 +1,44 @@
+package com.reservas.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class ReservaEventoResponse {
+    private String tipo;
+    private Long idReserva;
+    private String estado;
+    private Long idServicio;
+    private LocalDate fecha;
+    private LocalTime hora;
+
+    public ReservaEventoResponse() {}
+
+    public ReservaEventoResponse(String tipo, Long idReserva, String estado, Long idServicio,
+                                 LocalDate fecha, LocalTime hora) {
+        this.tipo = tipo;
+        this.idReserva = idReserva;
+        this.estado = estado;
+        this.idServicio = idServicio;
+        this.fecha = fecha;
+        this.hora = hora;
+    }
+
+    // Getters y Setters
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+
+    public Long getIdReserva() { return idReserva; }
+    public void setIdReserva(Long idReserva) { this.idReserva = idReserva; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public Long getIdServicio() { return idServicio; }
+    public void setIdServicio(Long idServicio) { this.idServicio = idServicio; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public LocalTime getHora() { return hora; }
+    public void setHora(LocalTime hora) { this.hora = hora; }
+}
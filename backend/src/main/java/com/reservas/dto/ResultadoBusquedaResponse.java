@@ -0,0 +1,40 @@
+package com.reservas.dto;
+
+public class ResultadoBusquedaResponse {
+    private String tipo;
+    private Long id;
+    private String nombre;
+    private String email;
+    private String telefono;
+    private double puntaje;
+
+    public ResultadoBusquedaResponse() {}
+
+    public ResultadoBusquedaResponse(String tipo, Long id, String nombre, String email, String telefono, double puntaje) {
+        this.tipo = tipo;
+        this.id = id;
+        this.nombre = nombre;
+        this.email = email;
+        this.telefono = telefono;
+        this.puntaje = puntaje;
+    }
+
+    // Getters y Setters
+    public String getTipo() { return tipo; }
+    public void setTipo(String tipo) { this.tipo = tipo; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNombre() { return nombre; }
+    public void setNombre(String nombre) { this.nombre = nombre; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getTelefono() { return telefono; }
+    public void setTelefono(String telefono) { this.telefono = telefono; }
+
+    public double getPuntaje() { return puntaje; }
+    public void setPuntaje(double puntaje) { this.puntaje = puntaje; }
+}
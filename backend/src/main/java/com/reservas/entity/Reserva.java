@@ -7,8 +7,17 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "reservas")
+@NamedEntityGraph(name = "Reserva.detalle", attributeNodes = {
+    @NamedAttributeNode("usuario"),
+    @NamedAttributeNode("servicio"),
+    @NamedAttributeNode("usuarioGestor")
+})
+@Table(name = "reservas", indexes = {
+    @Index(name = "idx_reservas_fecha_hora_id", columnList = "fecha, hora, id_reserva")
+})
 public class Reserva {
+    private static final LocalTime FIN_DEL_DIA = LocalTime.of(23, 59, 59);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id_reserva")
@@ -36,6 +45,10 @@ public class Reserva {
     @Column(name = "hora", nullable = false)
     private LocalTime hora;
 
+    // Fin del turno según la duración del servicio al reservar; lo usa la restricción de superposición de cada partición
+    @Column(name = "hora_fin")
+    private LocalTime horaFin;
+
     @Column(name = "estado")
     private String estado = "Pendiente";
 
@@ -68,6 +81,13 @@ public class Reserva {
         this.hora = hora;
     }
 
+    // Fin de un turno que empieza a "hora"; si pasa la medianoche se recorta a 23:59:59 (sin fracción de segundo,
+    // igual se guarde por JPA o por JDBC) para que la reserva no salte al día siguiente
+    public static LocalTime calcularHoraFin(LocalTime hora, int duracionMinutos) {
+        long finMinutos = hora.toSecondOfDay() / 60 + duracionMinutos;
+        return finMinutos >= 24 * 60 ? FIN_DEL_DIA : hora.plusMinutes(duracionMinutos);
+    }
+
     // Getters y Setters
     public Long getIdReserva() { return idReserva; }
     public void setIdReserva(Long idReserva) { this.idReserva = idReserva; }
@@ -87,6 +107,9 @@ public class Reserva {
     public LocalTime getHora() { return hora; }
     public void setHora(LocalTime hora) { this.hora = hora; }
 
+    public LocalTime getHoraFin() { return horaFin; }
+    public void setHoraFin(LocalTime horaFin) { this.horaFin = horaFin; }
+
     public String getEstado() { return estado; }
     public void setEstado(String estado) { this.estado = estado; }
 
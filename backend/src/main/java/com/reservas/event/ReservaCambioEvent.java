@@ -0,0 +1,44 @@
+package com.reservas.event;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Se publica desde ReservaService cada vez que una reserva se crea o cambia de estado/gestor
+public class ReservaCambioEvent {
+    private final Long idReserva;
+    private final Long idServicio;
+    private final LocalDate fecha;
+    private final LocalTime hora;
+    private final LocalTime horaFin;
+    private final String estadoAnterior;
+    private final String estadoNuevo;
+    private final Long idGestorAnterior;
+    private final Long idGestorNuevo;
+
+    public ReservaCambioEvent(Long idReserva, Long idServicio, LocalDate fecha, LocalTime hora, LocalTime horaFin,
+                              String estadoAnterior, String estadoNuevo,
+                              Long idGestorAnterior, Long idGestorNuevo) {
+        this.idReserva = idReserva;
+        this.idServicio = idServicio;
+        this.fecha = fecha;
+        this.hora = hora;
+        this.horaFin = horaFin;
+        this.estadoAnterior = estadoAnterior;
+        this.estadoNuevo = estadoNuevo;
+        this.idGestorAnterior = idGestorAnterior;
+        this.idGestorNuevo = idGestorNuevo;
+    }
+
+    public boolean esCreacion() { return estadoAnterior == null; }
+
+    // Getters
+    public Long getIdReserva() { return idReserva; }
+    public Long getIdServicio() { return idServicio; }
+    public LocalDate getFecha() { return fecha; }
+    public LocalTime getHora() { return hora; }
+    public LocalTime getHoraFin() { return horaFin; }
+    public String getEstadoAnterior() { return estadoAnterior; }
+    public String getEstadoNuevo() { return estadoNuevo; }
+    public Long getIdGestorAnterior() { return idGestorAnterior; }
+    public Long getIdGestorNuevo() { return idGestorNuevo; }
+}
@@ -0,0 +1,17 @@
+package com.reservas.exception;
+
+// La Idempotency-Key ya se usó con otro cuerpo de solicitud, o la solicitud original sigue en curso
+// pasado el tiempo de espera
+public class ClaveIdempotenciaException extends RuntimeException {
+
+    private final boolean enCurso;
+
+    public ClaveIdempotenciaException(String message, boolean enCurso) {
+        super(message);
+        this.enCurso = enCurso;
+    }
+
+    public boolean isEnCurso() {
+        return enCurso;
+    }
+}
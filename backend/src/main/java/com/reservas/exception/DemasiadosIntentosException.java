@@ -0,0 +1,9 @@
+package com.reservas.exception;
+
+// Se rechaza la operación antes de hacer trabajo caro (límite de intentos o pool de hashing lleno)
+public class DemasiadosIntentosException extends RuntimeException {
+
+    public DemasiadosIntentosException(String message) {
+        super(message);
+    }
+}
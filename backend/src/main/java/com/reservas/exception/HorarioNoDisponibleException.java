@@ -0,0 +1,9 @@
+package com.reservas.exception;
+
+// El horario pedido se superpone con otra reserva activa del mismo servicio
+public class HorarioNoDisponibleException extends RuntimeException {
+
+    public HorarioNoDisponibleException() {
+        super("El horario solicitado no está disponible");
+    }
+}
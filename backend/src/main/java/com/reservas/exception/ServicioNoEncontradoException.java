@@ -0,0 +1,9 @@
+package com.reservas.exception;
+
+// El id de servicio pedido no existe; los controladores lo responden con 404
+public class ServicioNoEncontradoException extends RuntimeException {
+
+    public ServicioNoEncontradoException() {
+        super("Servicio no encontrado");
+    }
+}
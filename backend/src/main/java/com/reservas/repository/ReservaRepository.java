@@ -1,41 +1,120 @@
 package com.reservas.repository;
 
 import com.reservas.entity.Reserva;
+import com.reservas.entity.Usuario;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     
+    // Los listados cargan usuario, servicio y gestor en la misma sentencia para armar ReservaResponse sin N+1
+    @EntityGraph("Reserva.detalle")
+    Optional<Reserva> findDetalleByIdReserva(Long idReserva);
+    
+    @EntityGraph("Reserva.detalle")
     List<Reserva> findByEstado(String estado);
     
+    @EntityGraph("Reserva.detalle")
     List<Reserva> findByFecha(LocalDate fecha);
     
+    @EntityGraph("Reserva.detalle")
     List<Reserva> findByFechaBetween(LocalDate fechaInicio, LocalDate fechaFin);
     
+    @EntityGraph("Reserva.detalle")
     List<Reserva> findByUsuario_IdUsuario(Long idUsuario);
     
+    @EntityGraph("Reserva.detalle")
     List<Reserva> findByServicio_IdServicio(Long idServicio);
     
+    @EntityGraph("Reserva.detalle")
     @Query("SELECT r FROM Reserva r WHERE r.fecha = :fecha AND r.estado = :estado")
     List<Reserva> findByFechaAndEstado(@Param("fecha") LocalDate fecha, @Param("estado") String estado);
     
+    @EntityGraph("Reserva.detalle")
     @Query("SELECT r FROM Reserva r ORDER BY r.fecha DESC, r.hora DESC")
     List<Reserva> findAllOrderByFechaDesc();
     
+    // Paginación por cursor sobre (fecha, hora, id_reserva), apoyada en idx_reservas_fecha_hora_id
+    @EntityGraph("Reserva.detalle")
+    @Query("SELECT r FROM Reserva r ORDER BY r.fecha DESC, r.hora DESC, r.idReserva DESC")
+    List<Reserva> findFirstPageOrderByFechaDesc(Pageable pageable);
+    
+    @EntityGraph("Reserva.detalle")
+    @Query("SELECT r FROM Reserva r WHERE r.fecha <= :fecha AND (r.fecha < :fecha OR r.hora < :hora " +
+           "OR (r.hora = :hora AND r.idReserva < :idReserva)) " +
+           "ORDER BY r.fecha DESC, r.hora DESC, r.idReserva DESC")
+    List<Reserva> findPageAfterCursorOrderByFechaDesc(@Param("fecha") LocalDate fecha,
+                                                      @Param("hora") LocalTime hora,
+                                                      @Param("idReserva") Long idReserva,
+                                                      Pageable pageable);
+    
+    @EntityGraph("Reserva.detalle")
     @Query("SELECT r FROM Reserva r WHERE r.estado = 'Pendiente' ORDER BY r.creadoEn ASC")
     List<Reserva> findPendingReservationsOrderByCreated();
     
     @Query("SELECT COUNT(r) FROM Reserva r WHERE r.fecha = :fecha AND r.estado IN ('Confirmada', 'Pendiente')")
     Long countReservationsByDate(@Param("fecha") LocalDate fecha);
     
+    // Operaciones en lote: se bloquean las filas en orden de id (evita interbloqueos) y se actualizan con un solo UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Reserva r WHERE r.idReserva IN :ids ORDER BY r.idReserva")
+    List<Reserva> findAllForUpdateByIdReservaIn(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = :estado, r.actualizadoEn = :ahora WHERE r.idReserva IN :ids")
+    int updateEstadoByIdReservaIn(@Param("ids") Collection<Long> ids,
+                                  @Param("estado") String estado,
+                                  @Param("ahora") LocalDateTime ahora);
+    
+    @Modifying
+    @Query("UPDATE Reserva r SET r.estado = :estado, r.usuarioGestor = :gestor, r.actualizadoEn = :ahora " +
+           "WHERE r.idReserva IN :ids")
+    int updateEstadoAndGestorByIdReservaIn(@Param("ids") Collection<Long> ids,
+                                           @Param("estado") String estado,
+                                           @Param("gestor") Usuario gestor,
+                                           @Param("ahora") LocalDateTime ahora);
+    
+    // Una fila por estado: [estado, total, reservas activas de la fecha indicada]
+    @Query("SELECT r.estado, COUNT(r), " +
+           "SUM(CASE WHEN r.fecha = :fecha AND r.estado IN ('Confirmada', 'Pendiente') THEN 1 ELSE 0 END) " +
+           "FROM Reserva r GROUP BY r.estado")
+    List<Object[]> countByEstadoWithDate(@Param("fecha") LocalDate fecha);
+    
+    // Horarios que ocupan agenda (pendientes y confirmadas): [idServicio, fecha, hora, horaFin]
+    @Query("SELECT r.servicio.idServicio, r.fecha, r.hora, r.horaFin FROM Reserva r " +
+           "WHERE r.fecha BETWEEN :desde AND :hasta AND r.estado IN ('Pendiente', 'Confirmada')")
+    List<Object[]> findHorariosOcupados(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+    
+    @Query("SELECT r.servicio.idServicio, r.fecha, r.hora, r.horaFin FROM Reserva r " +
+           "WHERE r.servicio.idServicio = :idServicio AND r.fecha BETWEEN :desde AND :hasta " +
+           "AND r.estado IN ('Pendiente', 'Confirmada')")
+    List<Object[]> findHorariosOcupadosByServicio(@Param("idServicio") Long idServicio,
+                                                  @Param("desde") LocalDate desde,
+                                                  @Param("hasta") LocalDate hasta);
+    
+    // Base de los contadores en memoria: una fila por (fecha, estado, servicio)
+    @Query("SELECT r.fecha, r.estado, r.servicio.idServicio, COUNT(r) FROM Reserva r " +
+           "GROUP BY r.fecha, r.estado, r.servicio.idServicio")
+    List<Object[]> countGroupedByFechaEstadoServicio();
+    
+    // Rango de fechas en lugar de EXTRACT(YEAR ...) para usar idx_reservas_confirmadas_fin y podar particiones
     @Query("SELECT COUNT(r) as count, EXTRACT(MONTH FROM r.fecha) as month " +
-           "FROM Reserva r WHERE r.estado = 'Confirmada' AND EXTRACT(YEAR FROM r.fecha) = :year " +
+           "FROM Reserva r WHERE r.estado = 'Confirmada' AND r.fecha >= :desde AND r.fecha < :hasta " +
            "GROUP BY EXTRACT(MONTH FROM r.fecha) ORDER BY month")
-    List<Object[]> findMonthlyReservationStats(@Param("year") int year);
+    List<Object[]> findMonthlyReservationStats(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
 }
\ No newline at end of file
@@ -12,8 +12,6 @@ public interface ServicioRepository extends JpaRepository<Servicio, Long> {
     
     List<Servicio> findByActivoTrue();
     
-    List<Servicio> findByNombreServicioContainingIgnoreCase(String nombre);
-    
     @Query("SELECT s FROM Servicio s WHERE s.activo = true ORDER BY s.nombreServicio ASC")
     List<Servicio> findAllActiveOrderByName();
     
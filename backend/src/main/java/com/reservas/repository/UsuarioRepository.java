@@ -25,15 +25,22 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     @Query("SELECT u FROM Usuario u WHERE u.activo = true AND u.rol IN ('ADMINISTRADOR', 'EMPLEADO', 'SUPERVISOR') ORDER BY u.nombre ASC")
     List<Usuario> findUsuariosAdministrativos();
     
-    @Query("SELECT u FROM Usuario u LEFT JOIN u.reservasGestionadas r WHERE u.activo = true AND u.rol != 'CLIENTE' GROUP BY u ORDER BY COUNT(r) DESC")
-    List<Usuario> findUsuariosConReservasGestionadas();
+    // Las consultas "ConTotalGestionadas" devuelven [Usuario, Long] para no contar reservas fila por fila
+    @Query("SELECT u, COUNT(r) FROM Usuario u LEFT JOIN u.reservasGestionadas r WHERE u.activo = true AND u.rol != 'CLIENTE' GROUP BY u ORDER BY COUNT(r) DESC")
+    List<Object[]> findUsuariosConReservasGestionadas();
+    
+    @Query("SELECT u, COUNT(r) FROM Usuario u LEFT JOIN u.reservasGestionadas r WHERE u.activo = true AND u.rol IN ('ADMINISTRADOR', 'EMPLEADO', 'SUPERVISOR') GROUP BY u ORDER BY u.nombre ASC")
+    List<Object[]> findUsuariosAdministrativosConTotalGestionadas();
+    
+    @Query("SELECT u, COUNT(r) FROM Usuario u LEFT JOIN u.reservasGestionadas r WHERE u.activo = true GROUP BY u ORDER BY u.nombre ASC")
+    List<Object[]> findActivosConTotalGestionadas();
+    
+    @Query("SELECT u, COUNT(r) FROM Usuario u LEFT JOIN u.reservasGestionadas r WHERE u.rol = :rol GROUP BY u ORDER BY u.nombre ASC")
+    List<Object[]> findByRolConTotalGestionadas(@Param("rol") Usuario.Rol rol);
     
     @Query("SELECT COUNT(r) FROM Reserva r WHERE r.usuarioGestor.idUsuario = :usuarioId")
     Integer countReservasGestionadasByUsuario(@Param("usuarioId") Long usuarioId);
     
-    @Query("SELECT u FROM Usuario u WHERE u.nombre LIKE %:nombre%")
-    List<Usuario> findByNombreContaining(@Param("nombre") String nombre);
-    
     @Query("SELECT u FROM Usuario u WHERE u.telefono = :telefono")
     Optional<Usuario> findByTelefono(@Param("telefono") String telefono);
 }
\ No newline at end of file
@@ -4,40 +4,57 @@ import com.reservas.dto.LoginRequest;
 import com.reservas.dto.LoginResponse;
 import com.reservas.entity.Usuario;
 import com.reservas.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
+@Timed("reservas.servicio")
 public class AuthService {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private HashContrasenaService hashContrasenaService;
+
+    @Autowired
+    private LimiteIntentosLoginService limiteIntentosLoginService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    public LoginResponse login(LoginRequest loginRequest, String ip) {
+        // Antes de la base y de BCrypt, para que el exceso de intentos no cueste nada
+        limiteIntentosLoginService.consumir(loginRequest.getEmail(), ip);
 
-    public LoginResponse login(LoginRequest loginRequest) {
         Usuario usuario = usuarioRepository.findByEmail(loginRequest.getEmail())
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), usuario.getPassword())) {
+        if (!hashContrasenaService.verificar(loginRequest.getPassword(), usuario.getPassword())) {
             throw new RuntimeException("Contraseña incorrecta");
         }
 
+        if (Boolean.FALSE.equals(usuario.getActivo())) {
+            throw new RuntimeException("Usuario inactivo");
+        }
+
         if (!Usuario.Rol.ADMINISTRADOR.equals(usuario.getRol()) && 
             !Usuario.Rol.SUPERVISOR.equals(usuario.getRol()) && 
             !Usuario.Rol.EMPLEADO.equals(usuario.getRol())) {
             throw new RuntimeException("No tienes permisos de administrador");
         }
 
-        // Por simplicidad, retornamos un token simple (en producción usar JWT)
-        String token = "admin-token-" + System.currentTimeMillis();
+        String token = tokenService.emitir(usuario);
 
         return new LoginResponse(token, usuario.getNombre(), usuario.getEmail(), usuario.getRol().getDisplayName());
     }
 
     public boolean validarToken(String token) {
-        return token != null && token.startsWith("admin-token-");
+        return tokenService.verificar(token).isPresent();
+    }
+
+    public void logout(String token) {
+        tokenService.revocarToken(token);
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.reservas.service;
+
+import com.reservas.dto.PaginaBusquedaResponse;
+import com.reservas.dto.ResultadoBusquedaResponse;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Búsqueda por subcadena de clientes (nombre, email, teléfono) y servicios, sin distinguir mayúsculas ni tildes.
+// Se apoya en los índices de trigramas de la migración V3; el puntaje es word_similarity entre el texto buscado
+// y el registro (1 = aparece como palabra completa).
+@Service
+@Timed("reservas.servicio")
+public class BusquedaService {
+
+    public static final String TIPO_CLIENTE = "cliente";
+    public static final String TIPO_SERVICIO = "servicio";
+
+    public static final int LIMITE_POR_DEFECTO = 20;
+    public static final int LIMITE_MAXIMO = 100;
+    // Cada página lee todas las filas anteriores de ambas fuentes para mezclarlas: más allá de este puesto
+    // la búsqueda deja de ser útil y sólo carga la base, así que se rechaza
+    public static final int RESULTADOS_MAXIMOS = 1000;
+    // Con menos de tres caracteres no hay trigramas y el LIKE recorrería la tabla entera
+    public static final int LONGITUD_MINIMA = 3;
+
+    // ORDER BY por la distancia <->> lo resuelve idx_usuarios_busqueda (GiST) recorriendo por cercanía
+    private static final String SELECT_CLIENTES =
+            "SELECT id_usuario, nombre, email, telefono, 1 - (busqueda <->> normalizar_busqueda(?)) AS puntaje " +
+            "FROM usuarios WHERE rol = 'CLIENTE' AND busqueda LIKE '%' || normalizar_busqueda(?) || '%' " +
+            "ORDER BY busqueda <->> normalizar_busqueda(?) LIMIT ?";
+
+    private static final String SELECT_SERVICIOS =
+            "SELECT id_servicio, nombre_servicio, " +
+            "1 - (normalizar_busqueda(nombre_servicio) <->> normalizar_busqueda(?)) AS puntaje " +
+            "FROM servicios WHERE normalizar_busqueda(nombre_servicio) LIKE '%' || normalizar_busqueda(?) || '%' " +
+            "ORDER BY puntaje DESC, nombre_servicio LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public PaginaBusquedaResponse buscar(String texto, String tipo, Integer pagina, Integer limite) {
+        String termino = texto == null ? "" : texto.trim();
+        if (termino.length() < LONGITUD_MINIMA) {
+            throw new IllegalArgumentException("La búsqueda debe tener al menos " + LONGITUD_MINIMA + " caracteres");
+        }
+        if (tipo != null && !TIPO_CLIENTE.equals(tipo) && !TIPO_SERVICIO.equals(tipo)) {
+            throw new IllegalArgumentException("Tipo de búsqueda no soportado: " + tipo);
+        }
+        int numeroPagina = pagina == null ? 0 : Math.max(0, pagina);
+        int tamanio = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        if ((numeroPagina + 1L) * tamanio > RESULTADOS_MAXIMOS) {
+            throw new IllegalArgumentException("La búsqueda sólo recorre los primeros " + RESULTADOS_MAXIMOS
+                    + " resultados; afinar el texto buscado");
+        }
+
+        // Cada fuente ya viene ordenada por puntaje; se piden las filas hasta el final de la página más una
+        // para saber si hay siguiente, y se mezclan
+        int hasta = (numeroPagina + 1) * tamanio;
+        String patron = escaparLike(termino);
+        List<ResultadoBusquedaResponse> resultados = new ArrayList<>();
+        if (tipo == null || TIPO_CLIENTE.equals(tipo)) {
+            resultados.addAll(jdbcTemplate.query(SELECT_CLIENTES, (rs, n) -> new ResultadoBusquedaResponse(
+                    TIPO_CLIENTE, rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getDouble(5)),
+                    termino, patron, termino, hasta + 1));
+        }
+        if (tipo == null || TIPO_SERVICIO.equals(tipo)) {
+            resultados.addAll(jdbcTemplate.query(SELECT_SERVICIOS, (rs, n) -> new ResultadoBusquedaResponse(
+                    TIPO_SERVICIO, rs.getLong(1), rs.getString(2), null, null, rs.getDouble(3)),
+                    termino, patron, hasta + 1));
+        }
+        if (tipo == null) {
+            // Orden estable: a igual puntaje primero los servicios, que son pocos
+            resultados.sort(Comparator.comparingDouble(ResultadoBusquedaResponse::getPuntaje).reversed()
+                    .thenComparing(r -> TIPO_CLIENTE.equals(r.getTipo())));
+        }
+
+        int desde = Math.min(numeroPagina * tamanio, resultados.size());
+        return new PaginaBusquedaResponse(
+                new ArrayList<>(resultados.subList(desde, Math.min(hasta, resultados.size()))),
+                numeroPagina,
+                // La página siguiente tiene que entrar en el tope para anunciarla
+                resultados.size() > hasta && hasta + tamanio <= RESULTADOS_MAXIMOS);
+    }
+
+    // El texto del usuario se busca literal: % y _ no actúan como comodines
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,147 @@
+package com.reservas.service;
+
+import com.reservas.entity.Usuario;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Alta o búsqueda del cliente de una reserva pública. Los clientes que ya reservaron se resuelven desde una
+// caché LRU por email sin ir a la base; el resto con un upsert atómico, así dos primeras reservas simultáneas
+// con el mismo email no chocan contra la restricción única.
+@Service
+public class ClientesService {
+
+    // El DO UPDATE no cambia nada (se conservan nombre y teléfono del alta) pero hace que RETURNING devuelva
+    // también la fila existente
+    private static final String UPSERT_CLIENTE =
+            "INSERT INTO usuarios (nombre, telefono, email, rol, activo, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'CLIENTE', true, now(), now()) " +
+            "ON CONFLICT (email) DO UPDATE SET email = EXCLUDED.email " +
+            "RETURNING id_usuario, nombre, telefono, email";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.clientes.cache-maximo:10000}")
+    private int maximoEnCache;
+
+    private Map<String, Cliente> cache;
+
+    private Counter aciertos;
+    private Counter fallos;
+
+    @PostConstruct
+    void inicializar() {
+        // accessOrder = true: el más antiguo es el menos usado recientemente
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cliente> eldest) {
+                return size() > maximoEnCache;
+            }
+        };
+        aciertos = Counter.builder("reservas.clientes.cache").tag("resultado", "acierto")
+                .description("Clientes de reservas resueltos desde la caché o con el upsert").register(meterRegistry);
+        fallos = Counter.builder("reservas.clientes.cache").tag("resultado", "fallo")
+                .description("Clientes de reservas resueltos desde la caché o con el upsert").register(meterRegistry);
+        Gauge.builder("reservas.clientes.cache.tamanio", this, ClientesService::tamanio)
+                .description("Clientes en la caché email -> id").register(meterRegistry);
+    }
+
+    // Devuelve un Usuario desligado (sólo id, nombre, teléfono y email), suficiente para asociarlo a una reserva
+    // y armar la respuesta sin volver a leerlo
+    public Usuario obtenerOCrear(String nombre, String telefono, String email) {
+        Cliente cliente;
+        synchronized (this) {
+            cliente = cache.get(email);
+        }
+        if (cliente != null) {
+            aciertos.increment();
+            return cliente.comoUsuario();
+        }
+
+        fallos.increment();
+        Cliente resuelto = jdbcTemplate.queryForObject(UPSERT_CLIENTE, (rs, n) -> new Cliente(
+                rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)), nombre, telefono, email);
+
+        // Un alta que después se deshace no debe quedar en la caché apuntando a un id inexistente
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guardar(resuelto);
+                }
+            });
+        } else {
+            guardar(resuelto);
+        }
+        return resuelto.comoUsuario();
+    }
+
+    // Se llama cuando un administrador cambia datos o email de un usuario. Dentro de una transacción se desaloja
+    // tras el commit: antes, una reserva concurrente todavía vería la fila vieja y la volvería a cachear.
+    // Otras instancias conservan su copia hasta que la desaloje el LRU.
+    public void invalidar(String email) {
+        if (email == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    quitar(email);
+                }
+            });
+        } else {
+            quitar(email);
+        }
+    }
+
+    private synchronized void quitar(String email) {
+        cache.remove(email);
+    }
+
+    private synchronized void guardar(Cliente cliente) {
+        cache.put(cliente.email, cliente);
+    }
+
+    private synchronized int tamanio() {
+        return cache.size();
+    }
+
+    private static class Cliente {
+        private final Long idUsuario;
+        private final String nombre;
+        private final String telefono;
+        private final String email;
+
+        Cliente(Long idUsuario, String nombre, String telefono, String email) {
+            this.idUsuario = idUsuario;
+            this.nombre = nombre;
+            this.telefono = telefono;
+            this.email = email;
+        }
+
+        // Instancia nueva en cada llamada: la entidad no se comparte entre hilos ni sesiones
+        Usuario comoUsuario() {
+            Usuario usuario = new Usuario();
+            usuario.setIdUsuario(idUsuario);
+            usuario.setNombre(nombre);
+            usuario.setTelefono(telefono);
+            usuario.setEmail(email);
+            return usuario;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.reservas.service;
+
+import com.reservas.entity.Servicio;
+import com.reservas.event.ReservaCambioEvent;
+import com.reservas.repository.ReservaRepository;
+import com.reservas.repository.ServicioRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Contadores de reportes en memoria: se arman con una agregación al arrancar y luego se mantienen por deltas.
+// Las claves compuestas se empaquetan en un long (día/mes * ESTADOS + estado) para no crear objetos por clave.
+@Service
+public class ContadoresReservasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadoresReservasService.class);
+
+    private static final List<String> ESTADOS = List.of("Pendiente", "Confirmada", "Rechazada", "Finalizada");
+    // Índice extra para estados fuera del CHECK de la tabla
+    private static final int OTRO = ESTADOS.size();
+    private static final int TOTAL_ESTADOS = ESTADOS.size() + 1;
+
+    private static final String SELECT_LSN_PRIMARIO = "SELECT pg_current_wal_lsn()::text";
+    // En el primario (o sin réplica) siempre es true
+    private static final String SELECT_REPLICA_AL_DIA =
+            "SELECT NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= ?::pg_lsn";
+    private static final String SELECT_ESTADOS_CARGADOS =
+            "SELECT r.id_reserva, r.estado FROM unnest(?, ?) AS l(id_reserva, fecha) " +
+            "JOIN reservas r ON r.id_reserva = l.id_reserva AND r.fecha = l.fecha";
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ServicioRepository servicioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Cuánto se espera a que la réplica alcance al primario antes de cargar; pasado eso se carga igual
+    @Value("${app.datasource.replica.retraso-maximo-ms:5000}")
+    private long esperaReplicaMs;
+
+    // La carga es una sola transacción de lectura con una única foto de la base (REPEATABLE READ); con réplica
+    // configurada corre en la réplica
+    private TransactionTemplate lectura;
+
+    private volatile Contadores contadores;
+
+    // Mientras se recarga desde la base, los cambios se aplican a los contadores vigentes y además se anotan acá.
+    // Al reemplazar, dentro de la misma foto de la carga se lee el estado de esas reservas: lo que la foto ya vio
+    // no se vuelve a sumar. El reemplazo toma el lock de escritura, así ningún delta cae entre la carga y la
+    // asignación.
+    private final ReadWriteLock lockCarga = new ReentrantReadWriteLock();
+    private volatile Queue<ReservaCambioEvent> cambiosDuranteCarga;
+
+    private final Map<Long, String> nombresServicio = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void inicializar() {
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        lectura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        // Propia aunque la llame un servicio con transacción abierta: la foto tiene que ser la de esta carga
+        lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean listo() {
+        return contadores != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        recargar();
+    }
+
+    // Compara los contadores con la base y, si hubo deriva (otras instancias, cambios directos en SQL), los reemplaza
+    @Scheduled(fixedDelayString = "${app.reportes.reconciliacion-ms:600000}", initialDelayString = "${app.reportes.reconciliacion-ms:600000}")
+    public void reconciliar() {
+        int diferencias = recargar();
+        if (diferencias > 0) {
+            log.warn("Reconciliación de contadores de reservas: {} claves corregidas", diferencias);
+        }
+    }
+
+    // Devuelve cuántas claves difieren entre los contadores reemplazados y los nuevos
+    private synchronized int recargar() {
+        cambiosDuranteCarga = new ConcurrentLinkedQueue<>();
+        try {
+            // Todo cambio cuyo evento llegó antes de empezar a anotar ya está en el WAL hasta acá
+            esperarReplica(jdbcTemplate.queryForObject(SELECT_LSN_PRIMARIO, String.class));
+            return lectura.execute(status -> {
+                Contadores base = cargarDesdeBase();
+                lockCarga.writeLock().lock();
+                try {
+                    Queue<ReservaCambioEvent> cambios = cambiosDuranteCarga;
+                    cambiosDuranteCarga = null;
+                    aplicarNoCargados(base, cambios);
+                    Contadores anteriores = contadores;
+                    contadores = base;
+                    // Dentro del lock: con eventos llegando después del reemplazo, las dos versiones ya no
+                    // serían comparables y se informarían diferencias que no existen
+                    return anteriores != null ? anteriores.diferencias(base) : 0;
+                } finally {
+                    lockCarga.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            cambiosDuranteCarga = null;
+            throw e;
+        }
+    }
+
+    // Con réplica, la carga podría no ver cambios ya confirmados en el primario que tampoco quedaron anotados
+    private void esperarReplica(String lsn) {
+        long limite = System.currentTimeMillis() + esperaReplicaMs;
+        while (!Boolean.TRUE.equals(lectura.execute(status ->
+                jdbcTemplate.queryForObject(SELECT_REPLICA_AL_DIA, Boolean.class, lsn)))) {
+            if (System.currentTimeMillis() > limite) {
+                log.warn("La réplica no alcanzó la posición {} del primario; los contadores pueden diferir hasta la "
+                        + "próxima reconciliación", lsn);
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Por reserva cuenta el último estado anotado, descontando el que ya vio la carga. Los cambios intermedios no
+    // importan: el neto de cualquier secuencia es salir del estado visto y entrar en el final.
+    private void aplicarNoCargados(Contadores base, Queue<ReservaCambioEvent> cambios) {
+        Map<Long, ReservaCambioEvent> ultimos = new LinkedHashMap<>();
+        for (ReservaCambioEvent evento : cambios) {
+            ultimos.put(evento.getIdReserva(), evento);
+        }
+        if (ultimos.isEmpty()) {
+            return;
+        }
+
+        Object[] ids = ultimos.keySet().toArray();
+        Object[] fechas = ultimos.values().stream().map(e -> Date.valueOf(e.getFecha())).toArray();
+        Map<Long, String> cargados = new HashMap<>();
+        jdbcTemplate.query(SELECT_ESTADOS_CARGADOS, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("date", fechas));
+        }, rs -> {
+            cargados.put(rs.getLong(1), rs.getString(2));
+        });
+
+        for (ReservaCambioEvent evento : ultimos.values()) {
+            String visto = cargados.get(evento.getIdReserva());
+            if (Objects.equals(visto, evento.getEstadoNuevo())) {
+                continue;
+            }
+            if (visto != null) {
+                base.sumar(evento.getFecha(), indiceEstado(visto), evento.getIdServicio(), -1);
+            }
+            base.sumar(evento.getFecha(), indiceEstado(evento.getEstadoNuevo()), evento.getIdServicio(), 1);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservaCambio(ReservaCambioEvent evento) {
+        if (Objects.equals(evento.getEstadoAnterior(), evento.getEstadoNuevo())) {
+            return;
+        }
+        lockCarga.readLock().lock();
+        try {
+            Contadores actuales = contadores;
+            if (actuales != null) {
+                aplicar(actuales, evento);
+            }
+            Queue<ReservaCambioEvent> cambios = cambiosDuranteCarga;
+            if (cambios != null) {
+                cambios.add(evento);
+            }
+        } finally {
+            lockCarga.readLock().unlock();
+        }
+    }
+
+    private static void aplicar(Contadores destino, ReservaCambioEvent evento) {
+        if (evento.getEstadoAnterior() != null) {
+            destino.sumar(evento.getFecha(), indiceEstado(evento.getEstadoAnterior()), evento.getIdServicio(), -1);
+        }
+        destino.sumar(evento.getFecha(), indiceEstado(evento.getEstadoNuevo()), evento.getIdServicio(), 1);
+    }
+
+    public void actualizarServicio(Servicio servicio) {
+        nombresServicio.put(servicio.getIdServicio(), servicio.getNombreServicio());
+    }
+
+    public long contarPorEstado(String estado) {
+        return contadores.porEstado[indiceEstado(estado)].sum();
+    }
+
+    public long contarTotal() {
+        long total = 0;
+        for (LongAdder contador : contadores.porEstado) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    public long contarPorFechaYEstado(LocalDate fecha, String estado) {
+        return valor(contadores.porDiaEstado, clave(fecha.toEpochDay(), indiceEstado(estado)));
+    }
+
+    // Mismo formato que ServicioRepository.findServiceUsageStats: [total, nombreServicio] de mayor a menor
+    public List<Object[]> serviciosPopulares() {
+        Contadores actuales = contadores;
+        List<Object[]> stats = new ArrayList<>(nombresServicio.size());
+        nombresServicio.forEach((idServicio, nombre) ->
+                stats.add(new Object[]{valor(actuales.porServicio, idServicio), nombre}));
+        stats.sort(Comparator.comparingLong((Object[] fila) -> (Long) fila[0]).reversed());
+        return stats;
+    }
+
+    // Mismo formato que ReservaRepository.findMonthlyReservationStats: [total, mes] de reservas confirmadas
+    public List<Object[]> reservasMensualesConfirmadas(int year) {
+        Contadores actuales = contadores;
+        int confirmada = indiceEstado("Confirmada");
+        List<Object[]> stats = new ArrayList<>();
+        for (int mes = 1; mes <= 12; mes++) {
+            long total = valor(actuales.porMesEstado, clave(claveMes(year, mes), confirmada));
+            if (total > 0) {
+                stats.add(new Object[]{total, mes});
+            }
+        }
+        return stats;
+    }
+
+    private Contadores cargarDesdeBase() {
+        Map<Long, String> nombres = new ConcurrentHashMap<>();
+        for (Servicio servicio : servicioRepository.findAll()) {
+            nombres.put(servicio.getIdServicio(), servicio.getNombreServicio());
+        }
+        nombresServicio.keySet().retainAll(nombres.keySet());
+        nombresServicio.putAll(nombres);
+
+        Contadores nuevos = new Contadores();
+        for (Object[] fila : reservaRepository.countGroupedByFechaEstadoServicio()) {
+            nuevos.sumar((LocalDate) fila[0], indiceEstado((String) fila[1]), (Long) fila[2], ((Number) fila[3]).longValue());
+        }
+        return nuevos;
+    }
+
+    private static int indiceEstado(String estado) {
+        int indice = ESTADOS.indexOf(estado);
+        return indice >= 0 ? indice : OTRO;
+    }
+
+    private static long clave(long periodo, int estado) {
+        return periodo * TOTAL_ESTADOS + estado;
+    }
+
+    private static long claveMes(int year, int mes) {
+        return year * 12L + (mes - 1);
+    }
+
+    private static long valor(Map<Long, LongAdder> mapa, long clave) {
+        LongAdder contador = mapa.get(clave);
+        return contador != null ? contador.sum() : 0;
+    }
+
+    private static class Contadores {
+        private final LongAdder[] porEstado = new LongAdder[TOTAL_ESTADOS];
+        private final Map<Long, LongAdder> porDiaEstado = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> porMesEstado = new ConcurrentHashMap<>();
+        private final Map<Long, LongAdder> porServicio = new ConcurrentHashMap<>();
+
+        Contadores() {
+            for (int i = 0; i < TOTAL_ESTADOS; i++) {
+                porEstado[i] = new LongAdder();
+            }
+        }
+
+        void sumar(LocalDate fecha, int estado, Long idServicio, long delta) {
+            porEstado[estado].add(delta);
+            porDiaEstado.computeIfAbsent(clave(fecha.toEpochDay(), estado), k -> new LongAdder()).add(delta);
+            porMesEstado.computeIfAbsent(clave(claveMes(fecha.getYear(), fecha.getMonthValue()), estado), k -> new LongAdder()).add(delta);
+            if (idServicio != null) {
+                porServicio.computeIfAbsent(idServicio, k -> new LongAdder()).add(delta);
+            }
+        }
+
+        int diferencias(Contadores otros) {
+            int diferencias = 0;
+            for (int i = 0; i < TOTAL_ESTADOS; i++) {
+                if (porEstado[i].sum() != otros.porEstado[i].sum()) {
+                    diferencias++;
+                }
+            }
+            diferencias += diferencias(porDiaEstado, otros.porDiaEstado);
+            diferencias += diferencias(porMesEstado, otros.porMesEstado);
+            diferencias += diferencias(porServicio, otros.porServicio);
+            return diferencias;
+        }
+
+        private static int diferencias(Map<Long, LongAdder> propios, Map<Long, LongAdder> otros) {
+            int diferencias = 0;
+            for (Map.Entry<Long, LongAdder> entrada : propios.entrySet()) {
+                if (entrada.getValue().sum() != valor(otros, entrada.getKey())) {
+                    diferencias++;
+                }
+            }
+            for (Map.Entry<Long, LongAdder> entrada : otros.entrySet()) {
+                if (!propios.containsKey(entrada.getKey()) && entrada.getValue().sum() != 0) {
+                    diferencias++;
+                }
+            }
+            return diferencias;
+        }
+    }
+}
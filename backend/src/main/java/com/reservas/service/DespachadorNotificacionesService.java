@@ -0,0 +1,164 @@
+package com.reservas.service;
+
+import com.reservas.dto.NotificacionReserva;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Envía las notificaciones del outbox por lotes. Reclamar un lote es un único UPDATE con FOR UPDATE SKIP LOCKED
+// que corre el próximo intento hacia adelante (plazo-envio-ms): las filas quedan apartadas mientras se envían
+// fuera de toda transacción, varias instancias se reparten la cola sin pisarse, y si una cae a mitad del envío
+// sus filas vuelven a estar disponibles al vencer el plazo. Los fallos se reintentan con espera exponencial.
+@Service
+public class DespachadorNotificacionesService {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachadorNotificacionesService.class);
+
+    private static final String RECLAMAR_LOTE =
+            "WITH lote AS (" +
+            "  SELECT id_notificacion FROM notificaciones_salida " +
+            "  WHERE estado = 'Pendiente' AND proximo_intento <= now() " +
+            "  ORDER BY proximo_intento LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE notificaciones_salida n SET intentos = n.intentos + 1, " +
+            "proximo_intento = now() + make_interval(secs => ?) FROM lote " +
+            "WHERE n.id_notificacion = lote.id_notificacion " +
+            "RETURNING n.id_notificacion, n.id_reserva, n.tipo, n.email, n.nombre, n.telefono, n.nombre_servicio, " +
+            "n.fecha, n.hora, n.intentos";
+
+    private static final String DELETE_ENVIADAS = "DELETE FROM notificaciones_salida WHERE id_notificacion = ANY (?)";
+    private static final String REPROGRAMAR =
+            "UPDATE notificaciones_salida SET proximo_intento = now() + make_interval(secs => ?), ultimo_error = ? " +
+            "WHERE id_notificacion = ?";
+    private static final String MARCAR_FALLIDA =
+            "UPDATE notificaciones_salida SET estado = 'Fallida', ultimo_error = ? WHERE id_notificacion = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EnviadorNotificaciones enviador;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Independiente de app.notificaciones.habilitado: un nodo que no despacha sigue escribiendo en el outbox
+    // y sus notificaciones las envía otra instancia
+    @Value("${app.notificaciones.despachador.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.notificaciones.tamanio-lote:100}")
+    private int tamanioLote;
+
+    @Value("${app.notificaciones.max-lotes:10}")
+    private int maxLotes;
+
+    @Value("${app.notificaciones.plazo-envio-ms:300000}")
+    private long plazoEnvioMs;
+
+    @Value("${app.notificaciones.max-intentos:8}")
+    private int maxIntentos;
+
+    @Value("${app.notificaciones.reintento-base-ms:30000}")
+    private long reintentoBaseMs;
+
+    @Value("${app.notificaciones.reintento-max-ms:3600000}")
+    private long reintentoMaxMs;
+
+    private Counter enviadas;
+    private Counter reintentos;
+    private Counter fallidas;
+    private Timer duracionLote;
+
+    @PostConstruct
+    void inicializar() {
+        enviadas = Counter.builder("reservas.notificaciones").tag("resultado", "enviada")
+                .description("Notificaciones del outbox procesadas por el despachador").register(meterRegistry);
+        reintentos = Counter.builder("reservas.notificaciones").tag("resultado", "reintento")
+                .description("Notificaciones del outbox procesadas por el despachador").register(meterRegistry);
+        fallidas = Counter.builder("reservas.notificaciones").tag("resultado", "fallida")
+                .description("Notificaciones del outbox procesadas por el despachador").register(meterRegistry);
+        duracionLote = Timer.builder("reservas.notificaciones.lote")
+                .description("Duración de cada lote del despachador de notificaciones")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notificaciones.intervalo-ms:5000}", initialDelayString = "${app.notificaciones.intervalo-ms:5000}")
+    public void despachar() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxLotes; i++) {
+                int cantidad = duracionLote.record(this::despacharLote);
+                if (cantidad < tamanioLote) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron despachar las notificaciones: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private int despacharLote() {
+        List<NotificacionReserva> lote = jdbcTemplate.query(RECLAMAR_LOTE, (rs, n) -> new NotificacionReserva(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7),
+                rs.getDate(8).toLocalDate(),
+                rs.getTime(9).toLocalTime(),
+                rs.getInt(10)), tamanioLote, plazoEnvioMs / 1000.0);
+
+        List<Long> entregadas = new ArrayList<>();
+        for (NotificacionReserva notificacion : lote) {
+            try {
+                enviador.enviar(notificacion);
+                entregadas.add(notificacion.getIdNotificacion());
+            } catch (Exception e) {
+                registrarFallo(notificacion, e);
+            }
+        }
+
+        if (!entregadas.isEmpty()) {
+            jdbcTemplate.update(DELETE_ENVIADAS,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", entregadas.toArray())));
+            enviadas.increment(entregadas.size());
+        }
+        return lote.size();
+    }
+
+    private void registrarFallo(NotificacionReserva notificacion, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+        if (notificacion.getIntentos() >= maxIntentos) {
+            jdbcTemplate.update(MARCAR_FALLIDA, error, notificacion.getIdNotificacion());
+            fallidas.increment();
+            log.warn("Notificación {} de la reserva {} descartada tras {} intentos: {}",
+                    notificacion.getIdNotificacion(), notificacion.getIdReserva(), notificacion.getIntentos(), error);
+            return;
+        }
+        jdbcTemplate.update(REPROGRAMAR, esperaReintento(notificacion.getIntentos()) / 1000.0, error,
+                notificacion.getIdNotificacion());
+        reintentos.increment();
+    }
+
+    // base, 2 x base, 4 x base, ... hasta reintento-max-ms
+    private long esperaReintento(int intentos) {
+        int exponente = Math.min(intentos - 1, 30);
+        return Math.min(reintentoMaxMs, reintentoBaseMs << exponente);
+    }
+}
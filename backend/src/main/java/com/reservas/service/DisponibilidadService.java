@@ -0,0 +1,268 @@
+package com.reservas.service;
+
+import com.reservas.dto.DisponibilidadResponse;
+import com.reservas.entity.Servicio;
+import com.reservas.event.ReservaCambioEvent;
+import com.reservas.exception.HorarioNoDisponibleException;
+import com.reservas.repository.ReservaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Índice de agenda en memoria: un bitmap de bloques de 5 minutos por (servicio, fecha).
+// Se precarga desde la base al arrancar, se carga bajo demanda fuera de la ventana y se actualiza con cada reserva.
+// Cada reserva ocupa [hora, hora_fin) tal como quedó guardada, igual que la restricción de exclusión de la base:
+// cambiar la duración de un servicio sólo afecta a las reservas nuevas.
+@Service
+public class DisponibilidadService {
+
+    public static final int MINUTOS_POR_BLOQUE = 5;
+    private static final int BLOQUES_POR_DIA = 24 * 60 / MINUTOS_POR_BLOQUE;
+    private static final int DURACION_POR_DEFECTO = 60;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Value("${app.disponibilidad.dias-precarga:60}")
+    private int diasPrecarga;
+
+    @Value("${app.disponibilidad.hora-apertura:08:00}")
+    private LocalTime horaApertura;
+
+    @Value("${app.disponibilidad.hora-cierre:20:00}")
+    private LocalTime horaCierre;
+
+    @Value("${app.disponibilidad.intervalo-minutos:30}")
+    private int intervaloMinutos;
+
+    private final Map<Long, Ocupacion> ocupaciones = new ConcurrentHashMap<>();
+
+    // Dentro de esta ventana una clave ausente significa "día sin reservas"
+    private volatile LocalDate precargadoDesde;
+    private volatile LocalDate precargadoHasta;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        LocalDate desde = LocalDate.now();
+        LocalDate hasta = desde.plusDays(diasPrecarga);
+        cargar(reservaRepository.findHorariosOcupados(desde, hasta));
+        precargadoDesde = desde;
+        precargadoHasta = hasta;
+    }
+
+    // Al cambiar de día se descartan los bitmaps vencidos y se extiende la ventana precargada
+    @Scheduled(cron = "${app.disponibilidad.cron-rotacion:0 5 0 * * *}")
+    public void rotarVentana() {
+        LocalDate hoy = LocalDate.now();
+        ocupaciones.keySet().removeIf(clave -> LocalDate.ofEpochDay(fechaDeClave(clave)).isBefore(hoy));
+        LocalDate hasta = hoy.plusDays(diasPrecarga);
+        if (precargadoHasta != null && precargadoHasta.isBefore(hasta)) {
+            cargar(reservaRepository.findHorariosOcupados(precargadoHasta.plusDays(1), hasta));
+        }
+        precargadoDesde = hoy;
+        precargadoHasta = hasta;
+    }
+
+    // Marca el horario como ocupado o lanza una excepción si se superpone con otra reserva.
+    // Si la transacción que crea la reserva no confirma, el horario se libera.
+    public void reservarHorario(Servicio servicio, LocalDate fecha, LocalTime hora, LocalTime horaFin) {
+        Ocupacion ocupacion = ocupacion(servicio.getIdServicio(), fecha);
+        int desde = bloqueInicio(hora);
+        int hasta = bloqueFin(horaFin);
+        if (!ocupacion.ocuparSiLibre(desde, hasta)) {
+            throw new HorarioNoDisponibleException();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        ocupacion.liberar(desde, hasta);
+                    }
+                }
+            });
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservaCambio(ReservaCambioEvent evento) {
+        if (evento.esCreacion()) {
+            // El horario ya quedó marcado en reservarHorario
+            return;
+        }
+        boolean ocupabaAntes = ocupaAgenda(evento.getEstadoAnterior());
+        boolean ocupaAhora = ocupaAgenda(evento.getEstadoNuevo());
+        if (ocupabaAntes == ocupaAhora) {
+            return;
+        }
+
+        Ocupacion ocupacion = ocupacion(evento.getIdServicio(), evento.getFecha());
+        int desde = bloqueInicio(evento.getHora());
+        int hasta = bloqueFin(evento.getHoraFin());
+        if (ocupaAhora) {
+            ocupacion.ocupar(desde, hasta);
+        } else {
+            ocupacion.liberar(desde, hasta);
+        }
+    }
+
+    public void eliminarServicio(Long idServicio) {
+        ocupaciones.keySet().removeIf(clave -> servicioDeClave(clave) == idServicio);
+    }
+
+    public List<DisponibilidadResponse> obtenerDisponibilidad(Servicio servicio, LocalDate desde, LocalDate hasta) {
+        int duracion = duracion(servicio);
+        cargarFaltantes(servicio.getIdServicio(), desde, hasta);
+
+        int bloquesReserva = (duracion + MINUTOS_POR_BLOQUE - 1) / MINUTOS_POR_BLOQUE;
+        int paso = Math.max(1, intervaloMinutos / MINUTOS_POR_BLOQUE);
+        int apertura = bloqueInicio(horaApertura);
+        int cierre = horaCierre.equals(LocalTime.MIDNIGHT) ? BLOQUES_POR_DIA : bloqueInicio(horaCierre);
+
+        List<DisponibilidadResponse> dias = new ArrayList<>();
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            Ocupacion ocupacion = ocupacion(servicio.getIdServicio(), fecha);
+            List<LocalTime> libres = new ArrayList<>();
+            for (int bloque = apertura; bloque + bloquesReserva <= cierre; bloque += paso) {
+                if (ocupacion.libre(bloque, bloque + bloquesReserva)) {
+                    libres.add(LocalTime.MIDNIGHT.plusMinutes((long) bloque * MINUTOS_POR_BLOQUE));
+                }
+            }
+            dias.add(new DisponibilidadResponse(fecha, duracion, libres));
+        }
+        return dias;
+    }
+
+    private Ocupacion ocupacion(Long idServicio, LocalDate fecha) {
+        long clave = clave(idServicio, fecha);
+        Ocupacion ocupacion = ocupaciones.get(clave);
+        if (ocupacion != null) {
+            return ocupacion;
+        }
+        if (!dentroDePrecarga(fecha)) {
+            cargar(reservaRepository.findHorariosOcupadosByServicio(idServicio, fecha, fecha));
+        }
+        return ocupaciones.computeIfAbsent(clave, k -> new Ocupacion());
+    }
+
+    // Fuera de la ventana precargada se trae el rango completo en una sola consulta
+    private void cargarFaltantes(Long idServicio, LocalDate desde, LocalDate hasta) {
+        boolean faltan = false;
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            if (!dentroDePrecarga(fecha) && !ocupaciones.containsKey(clave(idServicio, fecha))) {
+                faltan = true;
+                break;
+            }
+        }
+        if (!faltan) {
+            return;
+        }
+
+        Map<Long, Ocupacion> nuevas = new ConcurrentHashMap<>();
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            if (!dentroDePrecarga(fecha) && !ocupaciones.containsKey(clave(idServicio, fecha))) {
+                nuevas.put(clave(idServicio, fecha), new Ocupacion());
+            }
+        }
+        for (Object[] fila : reservaRepository.findHorariosOcupadosByServicio(idServicio, desde, hasta)) {
+            Ocupacion ocupacion = nuevas.get(clave(idServicio, (LocalDate) fila[1]));
+            if (ocupacion != null) {
+                ocupacion.ocupar(bloqueInicio((LocalTime) fila[2]), bloqueFin((LocalTime) fila[3]));
+            }
+        }
+        nuevas.forEach(ocupaciones::putIfAbsent);
+    }
+
+    private void cargar(List<Object[]> horarios) {
+        for (Object[] fila : horarios) {
+            ocupaciones.computeIfAbsent(clave((Long) fila[0], (LocalDate) fila[1]), k -> new Ocupacion())
+                    .ocupar(bloqueInicio((LocalTime) fila[2]), bloqueFin((LocalTime) fila[3]));
+        }
+    }
+
+    private boolean dentroDePrecarga(LocalDate fecha) {
+        LocalDate desde = precargadoDesde;
+        LocalDate hasta = precargadoHasta;
+        return desde != null && !fecha.isBefore(desde) && !fecha.isAfter(hasta);
+    }
+
+    private static boolean ocupaAgenda(String estado) {
+        return "Pendiente".equals(estado) || "Confirmada".equals(estado);
+    }
+
+    private static int duracion(Servicio servicio) {
+        Integer duracion = servicio.getDuracionMinutos();
+        return duracion != null && duracion > 0 ? duracion : DURACION_POR_DEFECTO;
+    }
+
+    private static int bloqueInicio(LocalTime hora) {
+        return hora.toSecondOfDay() / 60 / MINUTOS_POR_BLOQUE;
+    }
+
+    // Redondea hacia arriba: un fin recortado a 23:59:59 ocupa hasta el último bloque del día
+    private static int bloqueFin(LocalTime horaFin) {
+        int segundosPorBloque = MINUTOS_POR_BLOQUE * 60;
+        return Math.min(BLOQUES_POR_DIA, (horaFin.toSecondOfDay() + segundosPorBloque - 1) / segundosPorBloque);
+    }
+
+    // Clave = idServicio en los bits altos y día (epoch) en los 20 bits bajos
+    private static long clave(Long idServicio, LocalDate fecha) {
+        return (idServicio << 20) | fecha.toEpochDay();
+    }
+
+    private static long servicioDeClave(long clave) {
+        return clave >>> 20;
+    }
+
+    private static long fechaDeClave(long clave) {
+        return clave & ((1L << 20) - 1);
+    }
+
+    private static class Ocupacion {
+        private final long[] bloques = new long[(BLOQUES_POR_DIA + 63) / 64];
+
+        synchronized boolean ocuparSiLibre(int desde, int hasta) {
+            if (!libre(desde, hasta)) {
+                return false;
+            }
+            ocupar(desde, hasta);
+            return true;
+        }
+
+        synchronized boolean libre(int desde, int hasta) {
+            for (int i = desde; i < hasta; i++) {
+                if ((bloques[i >>> 6] & (1L << i)) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized void ocupar(int desde, int hasta) {
+            for (int i = desde; i < hasta; i++) {
+                bloques[i >>> 6] |= 1L << i;
+            }
+        }
+
+        synchronized void liberar(int desde, int hasta) {
+            for (int i = desde; i < hasta; i++) {
+                bloques[i >>> 6] &= ~(1L << i);
+            }
+        }
+    }
+}
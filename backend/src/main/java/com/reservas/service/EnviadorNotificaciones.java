@@ -0,0 +1,11 @@
+package com.reservas.service;
+
+import com.reservas.dto.NotificacionReserva;
+
+// Canal de entrega de las notificaciones del outbox (email, WhatsApp, ...). Se elige con app.notificaciones.enviador.
+// Cualquier excepción cuenta como fallo y la notificación se reintenta más tarde, así que enviar puede repetirse
+// para el mismo idNotificacion si una instancia cae después de entregar y antes de registrarlo.
+public interface EnviadorNotificaciones {
+
+    void enviar(NotificacionReserva notificacion) throws Exception;
+}
@@ -0,0 +1,23 @@
+package com.reservas.service;
+
+import com.reservas.dto.NotificacionReserva;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+// Enviador local por defecto: sólo deja el mensaje en el log. Sirve para desarrollo hasta configurar un canal real.
+@Service
+@ConditionalOnProperty(name = "app.notificaciones.enviador", havingValue = "log", matchIfMissing = true)
+public class EnviadorNotificacionesLog implements EnviadorNotificaciones {
+
+    private static final Logger log = LoggerFactory.getLogger(EnviadorNotificacionesLog.class);
+
+    @Override
+    public void enviar(NotificacionReserva notificacion) {
+        log.info("Notificación {} a {} <{}>: reserva {} {} de {} el {} a las {}",
+                notificacion.getIdNotificacion(), notificacion.getNombre(), notificacion.getEmail(),
+                notificacion.getIdReserva(), notificacion.getTipo(), notificacion.getNombreServicio(),
+                notificacion.getFecha(), notificacion.getHora());
+    }
+}
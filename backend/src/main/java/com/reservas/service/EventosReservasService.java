@@ -0,0 +1,206 @@
+package com.reservas.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.dto.ReservaEventoResponse;
+import com.reservas.event.ReservaCambioEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Difunde los cambios de reservas por SSE. Cada conexión es una petición asíncrona (no retiene un hilo del servlet)
+// y los envíos se hacen en hilos propios para no demorar la transacción que originó el cambio.
+// Cada cliente tiene su propia cola acotada y a lo sumo una tarea de envío en curso: un cliente lento sólo
+// demora sus propios eventos. Si su cola se llena o un envío supera el plazo, la conexión se cierra y el
+// navegador (EventSource) se reconecta.
+@Service
+public class EventosReservasService {
+
+    private static final Logger log = LoggerFactory.getLogger(EventosReservasService.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.eventos.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${app.eventos.hilos:4}")
+    private int hilos;
+
+    @Value("${app.eventos.max-pendientes:256}")
+    private int maxPendientes;
+
+    @Value("${app.eventos.plazo-envio-ms:10000}")
+    private long plazoEnvioMs;
+
+    private final Map<SseEmitter, Suscriptor> suscriptores = new ConcurrentHashMap<>();
+
+    private ExecutorService despachador;
+
+    @PostConstruct
+    void inicializar() {
+        AtomicInteger numero = new AtomicInteger();
+        despachador = Executors.newFixedThreadPool(hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "eventos-reservas-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    public SseEmitter suscribir() {
+        SseEmitter emisor = new SseEmitter(timeoutMs);
+        emisor.onCompletion(() -> suscriptores.remove(emisor));
+        emisor.onTimeout(() -> {
+            suscriptores.remove(emisor);
+            emisor.complete();
+        });
+        emisor.onError(error -> suscriptores.remove(emisor));
+        suscriptores.put(emisor, new Suscriptor(emisor, maxPendientes));
+        return emisor;
+    }
+
+    public int conexionesActivas() {
+        return suscriptores.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservaCambio(ReservaCambioEvent evento) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        ReservaEventoResponse datos = new ReservaEventoResponse(
+                tipo(evento),
+                evento.getIdReserva(),
+                evento.getEstadoNuevo(),
+                evento.getIdServicio(),
+                evento.getFecha(),
+                evento.getHora());
+        try {
+            // Se serializa una sola vez para todos los clientes
+            String json = objectMapper.writeValueAsString(datos);
+            publicar(SseEmitter.event()
+                    .name(datos.getTipo())
+                    .id(String.valueOf(evento.getIdReserva()))
+                    .data(json, MediaType.APPLICATION_JSON));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de reserva", e);
+        }
+    }
+
+    // Mantiene vivas las conexiones detrás de proxies, detecta clientes desconectados y corta envíos trabados
+    @Scheduled(fixedDelayString = "${app.eventos.heartbeat-ms:25000}")
+    public void latido() {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        for (Suscriptor suscriptor : suscriptores.values()) {
+            long desde = suscriptor.enviandoDesde;
+            if (desde != 0 && ahora - desde > plazoEnvioMs) {
+                descartar(suscriptor, "envío demorado más de " + plazoEnvioMs + " ms");
+            }
+        }
+        publicar(SseEmitter.event().comment("ping"));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        despachador.shutdownNow();
+        suscriptores.keySet().forEach(SseEmitter::complete);
+        suscriptores.clear();
+    }
+
+    private void publicar(SseEmitter.SseEventBuilder evento) {
+        for (Suscriptor suscriptor : suscriptores.values()) {
+            if (suscriptor.pendientes.offer(evento)) {
+                programar(suscriptor);
+            } else {
+                descartar(suscriptor, maxPendientes + " eventos sin enviar");
+            }
+        }
+    }
+
+    private void programar(Suscriptor suscriptor) {
+        if (suscriptor.programado.compareAndSet(false, true)) {
+            despachador.execute(() -> vaciar(suscriptor));
+        }
+    }
+
+    private void vaciar(Suscriptor suscriptor) {
+        try {
+            SseEmitter.SseEventBuilder evento;
+            while (suscriptores.containsKey(suscriptor.emisor) && (evento = suscriptor.pendientes.poll()) != null) {
+                suscriptor.enviandoDesde = System.currentTimeMillis();
+                try {
+                    suscriptor.emisor.send(evento);
+                } finally {
+                    suscriptor.enviandoDesde = 0;
+                }
+            }
+        } catch (Exception e) {
+            suscriptores.remove(suscriptor.emisor);
+            suscriptor.emisor.completeWithError(e);
+        } finally {
+            suscriptor.programado.set(false);
+        }
+        // Un evento encolado después del último poll pero antes de liberar la marca no puede quedar varado
+        if (!suscriptor.pendientes.isEmpty() && suscriptores.containsKey(suscriptor.emisor)) {
+            programar(suscriptor);
+        }
+    }
+
+    private void descartar(Suscriptor suscriptor, String motivo) {
+        if (suscriptores.remove(suscriptor.emisor) != null) {
+            suscriptor.pendientes.clear();
+            log.info("Conexión SSE cerrada por cliente lento: {}", motivo);
+            suscriptor.emisor.complete();
+        }
+    }
+
+    private static String tipo(ReservaCambioEvent evento) {
+        if (evento.esCreacion()) {
+            return "creada";
+        }
+        if ("Confirmada".equals(evento.getEstadoNuevo())) {
+            return "confirmada";
+        }
+        if ("Rechazada".equals(evento.getEstadoNuevo())) {
+            return "rechazada";
+        }
+        if ("Finalizada".equals(evento.getEstadoNuevo())) {
+            return "finalizada";
+        }
+        return "actualizada";
+    }
+
+    private static class Suscriptor {
+        private final SseEmitter emisor;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pendientes;
+        private final AtomicBoolean programado = new AtomicBoolean();
+        // Inicio del envío en curso (0 si no hay ninguno), para detectar escrituras trabadas
+        private volatile long enviandoDesde;
+
+        Suscriptor(SseEmitter emisor, int maxPendientes) {
+            this.emisor = emisor;
+            this.pendientes = new ArrayBlockingQueue<>(maxPendientes);
+        }
+    }
+}
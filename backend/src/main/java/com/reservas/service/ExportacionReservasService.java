@@ -0,0 +1,197 @@
+package com.reservas.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+// Exportación de reservas por rango de fechas. Recorre la consulta con un cursor del servidor
+// (fetch size acotado) y escribe cada fila directo a la respuesta, sin armar la lista en memoria.
+@Service
+public class ExportacionReservasService {
+
+    public static final String FORMATO_CSV = "csv";
+    public static final String FORMATO_NDJSON = "ndjson";
+
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+
+    private static final String[] COLUMNAS = {
+            "id_reserva", "fecha", "hora", "hora_fin", "estado", "observaciones",
+            "id_cliente", "cliente_nombre", "cliente_telefono", "cliente_email",
+            "id_servicio", "servicio_nombre", "id_gestor", "gestor_nombre", "gestor_email",
+            "creado_en", "actualizado_en"
+    };
+
+    private static final String SELECT_RESERVAS =
+            "SELECT r.id_reserva, r.fecha, r.hora, r.hora_fin, r.estado, r.observaciones, " +
+            "u.id_usuario, u.nombre, u.telefono, u.email, " +
+            "s.id_servicio, s.nombre_servicio, g.id_usuario, g.nombre, g.email, " +
+            "r.creado_en, r.actualizado_en " +
+            "FROM %s r " +
+            "JOIN usuarios u ON u.id_usuario = r.id_usuario " +
+            "JOIN servicios s ON s.id_servicio = r.id_servicio " +
+            "LEFT JOIN usuarios g ON g.id_usuario = r.id_usuario_gestor " +
+            "WHERE r.fecha BETWEEN ? AND ? " +
+            "ORDER BY r.fecha, r.hora, r.id_reserva";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.exportacion.fetch-size:500}")
+    private int fetchSize;
+
+    private TransactionTemplate lectura;
+
+    @PostConstruct
+    void inicializar() {
+        // PostgreSQL solo usa cursor (y respeta el fetch size) con autocommit desactivado, por eso la transacción
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+    }
+
+    public static boolean formatoValido(String formato) {
+        return FORMATO_CSV.equals(formato) || FORMATO_NDJSON.equals(formato);
+    }
+
+    public void exportar(LocalDate desde, LocalDate hasta, String formato, OutputStream salida) throws IOException {
+        exportar("reservas", desde, hasta, formato, salida);
+    }
+
+    // Reservas de meses ya archivados (ver ParticionesReservasService)
+    public void exportarHistorico(LocalDate desde, LocalDate hasta, String formato, OutputStream salida) throws IOException {
+        exportar("reservas_historico", desde, hasta, formato, salida);
+    }
+
+    private void exportar(String tabla, LocalDate desde, LocalDate hasta, String formato, OutputStream salida) throws IOException {
+        String sql = String.format(SELECT_RESERVAS, tabla);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+        RowCallbackHandler escritor;
+        JsonGenerator json = null;
+
+        if (FORMATO_NDJSON.equals(formato)) {
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Un objeto por línea: el separador lo escribimos nosotros
+            json.setRootValueSeparator(null);
+            JsonGenerator generador = json;
+            escritor = rs -> escribirJson(rs, generador);
+        } else {
+            escribirFilaCsv(writer, COLUMNAS);
+            escritor = rs -> escribirCsv(rs, writer);
+        }
+
+        try {
+            lectura.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setDate(1, Date.valueOf(desde));
+                ps.setDate(2, Date.valueOf(hasta));
+                return ps;
+            }, escritor));
+        } catch (UncheckedIOException e) {
+            // El cliente cortó la descarga; se aborta la consulta y se propaga el error de E/S original
+            throw e.getCause();
+        }
+
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private void escribirCsv(ResultSet rs, Writer writer) throws SQLException {
+        String[] fila = new String[COLUMNAS.length];
+        for (int i = 0; i < fila.length; i++) {
+            fila[i] = texto(rs, i + 1);
+        }
+        try {
+            escribirFilaCsv(writer, fila);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void escribirJson(ResultSet rs, JsonGenerator json) throws SQLException {
+        try {
+            json.writeStartObject();
+            for (int i = 0; i < COLUMNAS.length; i++) {
+                Object valor = rs.getObject(i + 1);
+                if (valor == null) {
+                    json.writeNullField(COLUMNAS[i]);
+                } else if (valor instanceof Number numero) {
+                    json.writeNumberField(COLUMNAS[i], numero.longValue());
+                } else {
+                    json.writeStringField(COLUMNAS[i], texto(rs, i + 1));
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Fechas y horas en ISO-8601, igual que en la API JSON
+    private String texto(ResultSet rs, int columna) throws SQLException {
+        Object valor = rs.getObject(columna);
+        if (valor == null) {
+            return null;
+        }
+        if (valor instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (valor instanceof Date fecha) {
+            return fecha.toLocalDate().toString();
+        }
+        if (valor instanceof java.sql.Time hora) {
+            return hora.toLocalTime().toString();
+        }
+        return valor.toString();
+    }
+
+    private void escribirFilaCsv(Writer writer, String[] valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String valor = valores[i];
+            if (valor == null) {
+                continue;
+            }
+            if (valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0 || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(valor.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(valor);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
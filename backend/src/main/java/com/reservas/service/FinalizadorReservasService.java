@@ -0,0 +1,156 @@
+package com.reservas.service;
+
+import com.reservas.event.ReservaCambioEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pasa a Finalizada las reservas confirmadas cuyo turno (fecha + hora_fin) ya terminó.
+// Trabaja por lotes acotados con un único UPDATE por lote; FOR UPDATE SKIP LOCKED permite que varias
+// instancias corran a la vez repartiéndose las filas, sin bloquearse ni finalizar dos veces la misma.
+@Service
+public class FinalizadorReservasService {
+
+    private static final Logger log = LoggerFactory.getLogger(FinalizadorReservasService.class);
+
+    private static final String FINALIZAR_LOTE =
+            "WITH lote AS (" +
+            "  SELECT id_reserva, fecha FROM reservas " +
+            "  WHERE estado = 'Confirmada' AND fecha <= ? AND fecha + hora_fin <= ? " +
+            "  ORDER BY fecha, hora_fin LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE reservas r SET estado = 'Finalizada' FROM lote " +
+            "WHERE r.id_reserva = lote.id_reserva AND r.fecha = lote.fecha AND r.estado = 'Confirmada' " +
+            // Repetidas del lote: descartan las particiones futuras y limitan el join al índice de confirmadas;
+            // sin ellas el plan arma un hash con todas las confirmadas de todas las particiones
+            "AND r.fecha <= ? AND r.fecha + r.hora_fin <= ? " +
+            "RETURNING r.id_reserva, r.id_servicio, r.fecha, r.hora, r.hora_fin, r.id_usuario_gestor";
+
+    // Fin del turno confirmado más antiguo que sigue sin finalizar (lo resuelve el índice parcial de confirmadas)
+    private static final String SELECT_MAS_ANTIGUA =
+            "SELECT MIN(fecha + hora_fin) FROM reservas " +
+            "WHERE estado = 'Confirmada' AND fecha <= ? AND fecha + hora_fin <= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.finalizador.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.finalizador.tamanio-lote:500}")
+    private int tamanioLote;
+
+    // Tope de lotes por pasada para no acaparar la base si hay mucho atraso; el resto queda para la siguiente
+    @Value("${app.finalizador.max-lotes:20}")
+    private int maxLotes;
+
+    private TransactionTemplate escritura;
+    private Counter finalizadas;
+    private Timer duracionLote;
+
+    private final AtomicLong retrasoSegundos = new AtomicLong();
+    private final AtomicLong ultimaEjecucion = new AtomicLong();
+
+    @PostConstruct
+    void inicializar() {
+        // Cada lote en su propia transacción: libera los bloqueos enseguida y los eventos salen al confirmar
+        escritura = new TransactionTemplate(transactionManager);
+        finalizadas = Counter.builder("reservas.finalizador.finalizadas")
+                .description("Reservas confirmadas pasadas a Finalizada")
+                .register(meterRegistry);
+        duracionLote = Timer.builder("reservas.finalizador.lote")
+                .description("Duración de cada lote de finalización")
+                .register(meterRegistry);
+        Gauge.builder("reservas.finalizador.retraso", retrasoSegundos, AtomicLong::get)
+                .description("Segundos desde que terminó el turno confirmado más antiguo aún sin finalizar")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("reservas.finalizador.ultima.ejecucion", ultimaEjecucion, AtomicLong::get)
+                .description("Epoch en segundos de la última pasada completa del finalizador")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.finalizador.intervalo-ms:60000}", initialDelayString = "${app.finalizador.intervalo-ms:60000}")
+    public void finalizarVencidas() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        int total = 0;
+        try {
+            for (int i = 0; i < maxLotes; i++) {
+                int cantidad = duracionLote.record(() -> finalizarLote(ahora));
+                total += cantidad;
+                if (cantidad < tamanioLote) {
+                    break;
+                }
+            }
+            actualizarRetraso(LocalDateTime.now());
+            ultimaEjecucion.set(System.currentTimeMillis() / 1000);
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron finalizar las reservas vencidas: {}", e.getMostSpecificCause().getMessage());
+        }
+        if (total > 0) {
+            log.info("Finalizadas {} reservas confirmadas ya transcurridas", total);
+        }
+    }
+
+    private int finalizarLote(LocalDateTime ahora) {
+        Integer cantidad = escritura.execute(status -> {
+            List<ReservaCambioEvent> eventos = jdbcTemplate.query(FINALIZAR_LOTE, (rs, n) -> {
+                Long idGestor = rs.getObject(6) != null ? rs.getLong(6) : null;
+                return new ReservaCambioEvent(
+                        rs.getLong(1),
+                        rs.getLong(2),
+                        rs.getDate(3).toLocalDate(),
+                        rs.getTime(4).toLocalTime(),
+                        rs.getTime(5).toLocalTime(),
+                        "Confirmada",
+                        "Finalizada",
+                        idGestor,
+                        idGestor);
+            }, Date.valueOf(ahora.toLocalDate()), Timestamp.valueOf(ahora), tamanioLote,
+                    Date.valueOf(ahora.toLocalDate()), Timestamp.valueOf(ahora));
+            // Mismo evento que un cambio de estado desde la API: contadores, SSE y métricas se enteran tras el commit
+            eventos.forEach(eventPublisher::publishEvent);
+            return eventos.size();
+        });
+        finalizadas.increment(cantidad);
+        return cantidad;
+    }
+
+    private void actualizarRetraso(LocalDateTime ahora) {
+        Timestamp masAntigua = jdbcTemplate.queryForObject(SELECT_MAS_ANTIGUA, Timestamp.class,
+                Date.valueOf(ahora.toLocalDate()), Timestamp.valueOf(ahora));
+        retrasoSegundos.set(masAntigua == null ? 0 : Duration.between(masAntigua.toLocalDateTime(), ahora).getSeconds());
+    }
+}
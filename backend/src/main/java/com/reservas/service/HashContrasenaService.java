@@ -0,0 +1,108 @@
+package com.reservas.service;
+
+import com.reservas.exception.DemasiadosIntentosException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// BCrypt cuesta ~100 ms de CPU por llamada. Se ejecuta en un pool propio, acotado a los núcleos y con
+// cola corta: una ráfaga de logins espera o se rechaza acá en lugar de ocupar la CPU que necesitan las reservas.
+@Service
+public class HashContrasenaService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 = un hilo por núcleo disponible
+    @Value("${app.auth.hash-hilos:0}")
+    private int hilos;
+
+    @Value("${app.auth.hash-cola:64}")
+    private int capacidadCola;
+
+    @Value("${app.auth.hash-timeout-ms:5000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+    private Counter rechazos;
+
+    @PostConstruct
+    void inicializar() {
+        int tamanio = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger numero = new AtomicInteger();
+        executor = new ThreadPoolExecutor(tamanio, tamanio, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), tarea -> {
+                    Thread hilo = new Thread(tarea, "hash-contrasena-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        // Tamaño de cola, hilos activos y tareas completadas del pool
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "hash.contrasena", List.of());
+        rechazos = Counter.builder("hash.contrasena.rechazos")
+                .description("Operaciones de hashing rechazadas por pool y cola llenos")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void cerrar() {
+        executor.shutdownNow();
+    }
+
+    public boolean verificar(String contrasena, String hash) {
+        if (contrasena == null || hash == null) {
+            return false;
+        }
+        return ejecutar(() -> passwordEncoder.matches(contrasena, hash));
+    }
+
+    public String codificar(String contrasena) {
+        return ejecutar(() -> passwordEncoder.encode(contrasena));
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new DemasiadosIntentosException("Servicio de autenticación saturado, intente nuevamente en unos segundos");
+        }
+        try {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazos.increment();
+            throw new DemasiadosIntentosException("Servicio de autenticación saturado, intente nuevamente en unos segundos");
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hashing de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
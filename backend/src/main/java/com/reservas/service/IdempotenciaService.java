@@ -0,0 +1,219 @@
+package com.reservas.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.exception.ClaveIdempotenciaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Idempotency-Key para operaciones que crean recursos. La primera solicitud con una clave ejecuta la operación;
+// los reintentos reciben la misma respuesta y los duplicados concurrentes esperan el resultado de la primera.
+// En memoria por instancia; con app.idempotencia.tabla=true la respuesta además se guarda en claves_idempotencia
+// dentro de la misma transacción, y un lock advisory por clave ordena a las instancias entre sí.
+@Service
+public class IdempotenciaService {
+
+    public static final int LONGITUD_MAXIMA_CLAVE = 255;
+
+    private static final String BLOQUEAR_CLAVE = "SELECT pg_advisory_xact_lock(hashtextextended(?, 0))";
+    private static final String SELECT_RESPUESTA =
+            "SELECT huella, respuesta::text FROM claves_idempotencia WHERE clave = ? AND expira_en > now()";
+    // Sólo puede chocar con una fila vencida: la vigente se habría devuelto antes, con el lock tomado
+    private static final String INSERT_RESPUESTA =
+            "INSERT INTO claves_idempotencia (clave, huella, respuesta, creado_en, expira_en) " +
+            "VALUES (?, ?, ?::jsonb, now(), now() + make_interval(secs => ?)) " +
+            "ON CONFLICT (clave) DO UPDATE SET huella = EXCLUDED.huella, respuesta = EXCLUDED.respuesta, " +
+            "creado_en = EXCLUDED.creado_en, expira_en = EXCLUDED.expira_en";
+    private static final String DELETE_VENCIDAS = "DELETE FROM claves_idempotencia WHERE expira_en <= now()";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.idempotencia.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${app.idempotencia.espera-ms:30000}")
+    private long esperaMs;
+
+    @Value("${app.idempotencia.tabla:false}")
+    private boolean usarTabla;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private Counter repetidas;
+
+    @PostConstruct
+    void inicializar() {
+        repetidas = Counter.builder("reservas.idempotencia.repetidas")
+                .description("Solicitudes con Idempotency-Key respondidas con el resultado original").register(meterRegistry);
+    }
+
+    public <T> Resultado<T> ejecutar(String clave, Object solicitud, Class<T> tipo, Supplier<T> operacion) {
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException("La Idempotency-Key debe tener entre 1 y " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+        }
+        String huella = huella(solicitud);
+
+        Entrada nueva = new Entrada(huella);
+        Entrada existente;
+        while ((existente = entradas.putIfAbsent(clave, nueva)) != null) {
+            if (!existente.vencida(System.currentTimeMillis())) {
+                verificarHuella(existente.huella, huella);
+                repetidas.increment();
+                return new Resultado<>(tipo.cast(esperar(existente)), true);
+            }
+            entradas.remove(clave, existente);
+        }
+
+        try {
+            Resultado<T> resultado = usarTabla ? ejecutarConTabla(clave, huella, tipo, operacion)
+                    : new Resultado<>(operacion.get(), false);
+            nueva.completar(resultado.getValor(), System.currentTimeMillis() + ttlMs);
+            if (resultado.isRepetida()) {
+                repetidas.increment();
+            }
+            return resultado;
+        } catch (RuntimeException e) {
+            // Un fallo no se recuerda: quienes esperaban reciben el mismo error y un reintento posterior vuelve a ejecutar
+            entradas.remove(clave, nueva);
+            nueva.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Otra instancia con la misma clave queda bloqueada en el lock hasta que esta transacción confirme o se deshaga
+    private <T> Resultado<T> ejecutarConTabla(String clave, String huella, Class<T> tipo, Supplier<T> operacion) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.query(BLOQUEAR_CLAVE, (RowCallbackHandler) rs -> { }, clave);
+            List<String[]> guardadas = jdbcTemplate.query(SELECT_RESPUESTA,
+                    (rs, n) -> new String[]{rs.getString(1), rs.getString(2)}, clave);
+            if (!guardadas.isEmpty()) {
+                verificarHuella(guardadas.get(0)[0], huella);
+                return new Resultado<>(leer(guardadas.get(0)[1], tipo), true);
+            }
+
+            T valor = operacion.get();
+            jdbcTemplate.update(INSERT_RESPUESTA, clave, huella, escribir(valor), ttlMs / 1000.0);
+            return new Resultado<>(valor, false);
+        });
+    }
+
+    private Object esperar(Entrada entrada) {
+        try {
+            return entrada.resultado.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ClaveIdempotenciaException("La solicitud original con esta Idempotency-Key sigue en curso", true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void verificarHuella(String guardada, String huella) {
+        if (!guardada.equals(huella)) {
+            throw new ClaveIdempotenciaException("La Idempotency-Key ya se usó con otra solicitud", false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotencia.purga-ms:60000}")
+    public void purgar() {
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(entrada -> entrada.vencida(ahora));
+        if (usarTabla) {
+            jdbcTemplate.update(DELETE_VENCIDAS);
+        }
+    }
+
+    private String huella(Object solicitud) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(solicitud));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String escribir(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T leer(String json, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(json, tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Resultado<T> {
+        private final T valor;
+        private final boolean repetida;
+
+        Resultado(T valor, boolean repetida) {
+            this.valor = valor;
+            this.repetida = repetida;
+        }
+
+        public T getValor() { return valor; }
+
+        public boolean isRepetida() { return repetida; }
+    }
+
+    private static class Entrada {
+        private final String huella;
+        private final CompletableFuture<Object> resultado = new CompletableFuture<>();
+        // 0 mientras la solicitud original está en curso
+        private volatile long expiraEn;
+
+        Entrada(String huella) {
+            this.huella = huella;
+        }
+
+        void completar(Object valor, long expiraEn) {
+            this.expiraEn = expiraEn;
+            resultado.complete(valor);
+        }
+
+        boolean vencida(long ahora) {
+            return expiraEn != 0 && expiraEn <= ahora;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.reservas.service;
+
+import com.reservas.dto.ImportacionResponse;
+import com.reservas.entity.Reserva;
+import com.reservas.entity.Servicio;
+import com.reservas.repository.ServicioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Importación masiva de reservas desde CSV. Lee el archivo línea a línea y escribe por lotes con JDBC,
+// así la memoria usada no depende del tamaño del archivo.
+// Es silenciosa a propósito: las filas importadas no publican ReservaCambioEvent ni pasan por el outbox, así que
+// no hay eventos SSE, métricas por reserva ni notificaciones "creada" (son datos cargados, no pedidos del cliente).
+// Los índices en memoria que dependen de esos eventos (contadores, agenda) se reconstruyen al terminar.
+@Service
+public class ImportacionReservasService {
+
+    private static final int TAMANIO_LOTE = 1000;
+    private static final int MAX_ERRORES_INFORMADOS = 1000;
+    private static final int MAX_CLIENTES_EN_CACHE = 100_000;
+    private static final Set<String> ESTADOS = Set.of("Pendiente", "Confirmada", "Rechazada", "Finalizada");
+    private static final List<String> COLUMNAS_OBLIGATORIAS = List.of("nombre", "telefono", "email", "id_servicio", "fecha", "hora");
+
+    private static final String SELECT_CLIENTES =
+            "SELECT email, id_usuario FROM usuarios WHERE email = ANY (?)";
+    private static final String INSERT_CLIENTE =
+            "INSERT INTO usuarios (nombre, telefono, email, rol, activo, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'CLIENTE', true, now(), now()) ON CONFLICT (email) DO NOTHING";
+    private static final String INSERT_RESERVA =
+            "INSERT INTO reservas (id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones, creado_en, actualizado_en) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, now(), now())";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ServicioRepository servicioRepository;
+
+    @Autowired
+    private ContadoresReservasService contadoresReservasService;
+
+    @Autowired
+    private DisponibilidadService disponibilidadService;
+
+    public ImportacionResponse importar(InputStream entrada) throws IOException {
+        Map<Long, Integer> duraciones = new HashMap<>();
+        for (Servicio servicio : servicioRepository.findAll()) {
+            Integer duracion = servicio.getDuracionMinutos();
+            duraciones.put(servicio.getIdServicio(), duracion != null && duracion > 0 ? duracion : 60);
+        }
+
+        // email -> id_usuario, acotado (LRU) para que un archivo con millones de clientes no agote el heap
+        Map<String, Long> clientes = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > MAX_CLIENTES_EN_CACHE;
+            }
+        };
+
+        Resultado resultado = new Resultado();
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String cabecera = lector.readLine();
+        if (cabecera == null) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        Map<String, Integer> columnas = leerCabecera(cabecera);
+
+        List<Fila> lote = new ArrayList<>(TAMANIO_LOTE);
+        long numeroLinea = 1;
+        String linea;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            resultado.lineas++;
+            try {
+                lote.add(parsearFila(numeroLinea, linea, columnas, duraciones));
+            } catch (IllegalArgumentException e) {
+                resultado.error(numeroLinea, e.getMessage());
+            }
+            if (lote.size() == TAMANIO_LOTE) {
+                procesarLote(lote, clientes, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesarLote(lote, clientes, resultado);
+        }
+
+        // Las filas se escribieron por fuera de ReservaService: se reconstruyen los índices en memoria
+        if (resultado.reservasCreadas > 0) {
+            contadoresReservasService.reconstruir();
+            disponibilidadService.precargar();
+        }
+
+        return new ImportacionResponse(resultado.lineas, resultado.reservasCreadas, resultado.clientesCreados,
+                resultado.totalErrores, resultado.errores);
+    }
+
+    private void procesarLote(List<Fila> lote, Map<String, Long> clientes, Resultado resultado) {
+        try {
+            Escritura escritura = transactionTemplate.execute(status -> escribir(lote, clientes));
+            clientes.putAll(escritura.clientes);
+            resultado.clientesCreados += escritura.clientesCreados;
+            resultado.reservasCreadas += lote.size();
+        } catch (DataAccessException e) {
+            // Una fila inválida aborta el batch completo: se reintenta fila por fila para informar la línea exacta
+            for (Fila fila : lote) {
+                try {
+                    Escritura escritura = transactionTemplate.execute(status -> escribir(List.of(fila), clientes));
+                    clientes.putAll(escritura.clientes);
+                    resultado.clientesCreados += escritura.clientesCreados;
+                    resultado.reservasCreadas++;
+                } catch (DataAccessException ex) {
+                    resultado.error(fila.linea, mensajeError(ex));
+                }
+            }
+        }
+    }
+
+    // Devuelve los clientes resueltos; la caché y los totales solo se actualizan si la transacción confirma
+    private Escritura escribir(List<Fila> lote, Map<String, Long> clientes) {
+        Escritura escritura = new Escritura();
+        Map<String, Long> resueltos = escritura.clientes;
+        Set<String> faltantes = new LinkedHashSet<>();
+        for (Fila fila : lote) {
+            Long idUsuario = clientes.get(fila.email);
+            if (idUsuario != null) {
+                resueltos.put(fila.email, idUsuario);
+            } else {
+                faltantes.add(fila.email);
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            resueltos.putAll(buscarClientes(faltantes));
+            List<Fila> nuevos = new ArrayList<>();
+            Set<String> emailsNuevos = new LinkedHashSet<>();
+            for (Fila fila : lote) {
+                if (!resueltos.containsKey(fila.email) && emailsNuevos.add(fila.email)) {
+                    nuevos.add(fila);
+                }
+            }
+            if (!nuevos.isEmpty()) {
+                int[][] filasAfectadas = jdbcTemplate.batchUpdate(INSERT_CLIENTE, nuevos, nuevos.size(), (ps, fila) -> {
+                    ps.setString(1, fila.nombre);
+                    ps.setString(2, fila.telefono);
+                    ps.setString(3, fila.email);
+                });
+                escritura.clientesCreados = contarAfectadas(filasAfectadas);
+                resueltos.putAll(buscarClientes(emailsNuevos));
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RESERVA, lote, lote.size(), (ps, fila) -> {
+            ps.setLong(1, resueltos.get(fila.email));
+            ps.setLong(2, fila.idServicio);
+            ps.setDate(3, Date.valueOf(fila.fecha));
+            ps.setTime(4, Time.valueOf(fila.hora));
+            ps.setTime(5, Time.valueOf(fila.horaFin));
+            ps.setString(6, fila.estado);
+            ps.setString(7, fila.observaciones);
+        });
+        return escritura;
+    }
+
+    private Map<String, Long> buscarClientes(Set<String> emails) {
+        Map<String, Long> encontrados = new HashMap<>();
+        jdbcTemplate.query(SELECT_CLIENTES,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", emails.toArray())),
+                rs -> {
+                    encontrados.put(rs.getString(1), rs.getLong(2));
+                });
+        return encontrados;
+    }
+
+    private static long contarAfectadas(int[][] filasAfectadas) {
+        long total = 0;
+        for (int[] lote : filasAfectadas) {
+            for (int afectadas : lote) {
+                // El driver puede informar SUCCESS_NO_INFO (-2) cuando reescribe el batch
+                total += afectadas > 0 ? afectadas : 0;
+            }
+        }
+        return total;
+    }
+
+    private static Map<String, Integer> leerCabecera(String cabecera) {
+        Map<String, Integer> columnas = new HashMap<>();
+        List<String> nombres = parsearCsv(cabecera.replace("\uFEFF", ""));
+        for (int i = 0; i < nombres.size(); i++) {
+            columnas.put(nombres.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+            if (!columnas.containsKey(obligatoria)) {
+                throw new IllegalArgumentException("Falta la columna obligatoria '" + obligatoria + "'");
+            }
+        }
+        return columnas;
+    }
+
+    private static Fila parsearFila(long numeroLinea, String linea, Map<String, Integer> columnas,
+                                    Map<Long, Integer> duraciones) {
+        List<String> valores = parsearCsv(linea);
+        Fila fila = new Fila();
+        fila.linea = numeroLinea;
+        fila.nombre = obligatorio(valores, columnas, "nombre", 100);
+        fila.telefono = obligatorio(valores, columnas, "telefono", 20);
+        fila.email = obligatorio(valores, columnas, "email", 100);
+        if (!fila.email.contains("@")) {
+            throw new IllegalArgumentException("Email inválido");
+        }
+
+        try {
+            fila.idServicio = Long.valueOf(obligatorio(valores, columnas, "id_servicio", 20));
+            fila.fecha = LocalDate.parse(obligatorio(valores, columnas, "fecha", 10));
+            fila.hora = LocalTime.parse(obligatorio(valores, columnas, "hora", 8));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Formato inválido en id_servicio, fecha (AAAA-MM-DD) u hora (HH:MM)");
+        }
+        Integer duracion = duraciones.get(fila.idServicio);
+        if (duracion == null) {
+            throw new IllegalArgumentException("Servicio no encontrado: " + fila.idServicio);
+        }
+        fila.horaFin = Reserva.calcularHoraFin(fila.hora, duracion);
+
+        String estado = opcional(valores, columnas, "estado");
+        fila.estado = estado != null ? estado : "Pendiente";
+        if (!ESTADOS.contains(fila.estado)) {
+            throw new IllegalArgumentException("Estado inválido: " + fila.estado);
+        }
+        fila.observaciones = opcional(valores, columnas, "observaciones");
+        return fila;
+    }
+
+    private static String obligatorio(List<String> valores, Map<String, Integer> columnas, String columna, int maximo) {
+        String valor = opcional(valores, columnas, columna);
+        if (valor == null) {
+            throw new IllegalArgumentException("El campo '" + columna + "' es obligatorio");
+        }
+        if (valor.length() > maximo) {
+            throw new IllegalArgumentException("El campo '" + columna + "' no puede exceder " + maximo + " caracteres");
+        }
+        return valor;
+    }
+
+    private static String opcional(List<String> valores, Map<String, Integer> columnas, String columna) {
+        Integer indice = columnas.get(columna);
+        if (indice == null || indice >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    // CSV separado por comas con comillas dobles opcionales ("" escapa una comilla)
+    private static List<String> parsearCsv(String linea) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                valores.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("Comillas sin cerrar");
+        }
+        valores.add(actual.toString());
+        return valores;
+    }
+
+    private static String mensajeError(DataAccessException e) {
+        String detalle = e.getMostSpecificCause().getMessage();
+        if (detalle != null && detalle.contains(ReservaService.RESTRICCION_SIN_SUPERPOSICION)) {
+            return "El horario se superpone con otra reserva activa del servicio";
+        }
+        return detalle != null ? detalle : e.getMessage();
+    }
+
+    private static class Fila {
+        private long linea;
+        private String nombre;
+        private String telefono;
+        private String email;
+        private Long idServicio;
+        private LocalDate fecha;
+        private LocalTime hora;
+        private LocalTime horaFin;
+        private String estado;
+        private String observaciones;
+    }
+
+    private static class Escritura {
+        private final Map<String, Long> clientes = new HashMap<>();
+        private long clientesCreados;
+    }
+
+    private static class Resultado {
+        private long lineas;
+        private long reservasCreadas;
+        private long clientesCreados;
+        private long totalErrores;
+        private final List<ImportacionResponse.ErrorLinea> errores = new ArrayList<>();
+
+        void error(long linea, String mensaje) {
+            totalErrores++;
+            if (errores.size() < MAX_ERRORES_INFORMADOS) {
+                errores.add(new ImportacionResponse.ErrorLinea(linea, mensaje));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.reservas.service;
+
+import com.reservas.exception.DemasiadosIntentosException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Token bucket por email y por IP para los intentos de login. Se consulta antes de tocar la base o BCrypt,
+// así un ataque de credential stuffing se corta con un lookup en memoria.
+@Service
+public class LimiteIntentosLoginService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auth.intentos-email:5}")
+    private int capacidadEmail;
+
+    @Value("${app.auth.intentos-email-por-minuto:5}")
+    private double recargaEmailPorMinuto;
+
+    @Value("${app.auth.intentos-ip:20}")
+    private int capacidadIp;
+
+    @Value("${app.auth.intentos-ip-por-minuto:20}")
+    private double recargaIpPorMinuto;
+
+    private final Map<String, Balde> porEmail = new ConcurrentHashMap<>();
+    private final Map<String, Balde> porIp = new ConcurrentHashMap<>();
+
+    private Counter limitadosPorEmail;
+    private Counter limitadosPorIp;
+
+    @PostConstruct
+    void inicializar() {
+        limitadosPorEmail = Counter.builder("auth.login.limitados").tag("motivo", "email")
+                .description("Intentos de login rechazados por límite de frecuencia").register(meterRegistry);
+        limitadosPorIp = Counter.builder("auth.login.limitados").tag("motivo", "ip")
+                .description("Intentos de login rechazados por límite de frecuencia").register(meterRegistry);
+    }
+
+    public void consumir(String email, String ip) {
+        long ahora = System.nanoTime();
+        if (ip != null && !porIp.computeIfAbsent(ip, k -> new Balde(capacidadIp, ahora)).tomar(capacidadIp, recargaIpPorMinuto, ahora)) {
+            limitadosPorIp.increment();
+            throw new DemasiadosIntentosException("Demasiados intentos de inicio de sesión, intente más tarde");
+        }
+        String clave = email != null ? email.trim().toLowerCase(Locale.ROOT) : "";
+        if (!porEmail.computeIfAbsent(clave, k -> new Balde(capacidadEmail, ahora)).tomar(capacidadEmail, recargaEmailPorMinuto, ahora)) {
+            limitadosPorEmail.increment();
+            throw new DemasiadosIntentosException("Demasiados intentos de inicio de sesión, intente más tarde");
+        }
+    }
+
+    // Un balde lleno equivale a no tener entrada: se descarta para que el mapa no crezca sin límite
+    @Scheduled(fixedDelayString = "${app.auth.purga-intentos-ms:60000}")
+    public void purgar() {
+        long ahora = System.nanoTime();
+        porEmail.values().removeIf(balde -> balde.lleno(capacidadEmail, recargaEmailPorMinuto, ahora));
+        porIp.values().removeIf(balde -> balde.lleno(capacidadIp, recargaIpPorMinuto, ahora));
+    }
+
+    private static class Balde {
+        private static final double NANOS_POR_MINUTO = 60_000_000_000d;
+
+        private double fichas;
+        private long ultimaRecarga;
+
+        Balde(int capacidad, long ahora) {
+            this.fichas = capacidad;
+            this.ultimaRecarga = ahora;
+        }
+
+        synchronized boolean tomar(int capacidad, double recargaPorMinuto, long ahora) {
+            recargar(capacidad, recargaPorMinuto, ahora);
+            if (fichas < 1) {
+                return false;
+            }
+            fichas -= 1;
+            return true;
+        }
+
+        synchronized boolean lleno(int capacidad, double recargaPorMinuto, long ahora) {
+            recargar(capacidad, recargaPorMinuto, ahora);
+            return fichas >= capacidad;
+        }
+
+        private void recargar(int capacidad, double recargaPorMinuto, long ahora) {
+            fichas = Math.min(capacidad, fichas + (ahora - ultimaRecarga) * recargaPorMinuto / NANOS_POR_MINUTO);
+            ultimaRecarga = ahora;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.reservas.service;
+
+import com.reservas.event.ReservaCambioEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.Objects;
+
+// Contadores de negocio: reservas creadas y cambios de estado por servicio, solo de transacciones confirmadas
+@Service
+public class MetricasReservasService {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservaCambio(ReservaCambioEvent evento) {
+        String accion;
+        if (evento.esCreacion()) {
+            accion = "creada";
+        } else if (!Objects.equals(evento.getEstadoAnterior(), evento.getEstadoNuevo())) {
+            accion = evento.getEstadoNuevo().toLowerCase(Locale.ROOT);
+        } else {
+            return;
+        }
+        Counter.builder("reservas.eventos")
+                .description("Reservas creadas y cambios de estado")
+                .tag("accion", accion)
+                .tag("servicio", String.valueOf(evento.getIdServicio()))
+                .register(meterRegistry)
+                .increment();
+    }
+}
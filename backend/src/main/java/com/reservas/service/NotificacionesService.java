@@ -0,0 +1,81 @@
+package com.reservas.service;
+
+import com.reservas.entity.Reserva;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.Collection;
+
+// Escribe las notificaciones a clientes en el outbox (notificaciones_salida) dentro de la transacción de
+// ReservaService: si la reserva no se confirma tampoco queda la notificación, y la petición no espera al envío.
+// El envío lo hace DespachadorNotificacionesService.
+@Service
+public class NotificacionesService {
+
+    public static final String TIPO_CREADA = "creada";
+    public static final String TIPO_CONFIRMADA = "confirmada";
+    public static final String TIPO_RECHAZADA = "rechazada";
+
+    private static final String INSERT_NOTIFICACION =
+            "INSERT INTO notificaciones_salida (id_reserva, tipo, email, nombre, telefono, nombre_servicio, fecha, hora) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Para los lotes, que no traen cargados cliente ni servicio: un único INSERT ... SELECT por (id_reserva, fecha)
+    private static final String INSERT_NOTIFICACIONES_LOTE =
+            "INSERT INTO notificaciones_salida (id_reserva, tipo, email, nombre, telefono, nombre_servicio, fecha, hora) " +
+            "SELECT r.id_reserva, ?, u.email, u.nombre, u.telefono, s.nombre_servicio, r.fecha, r.hora " +
+            "FROM unnest(?, ?) AS l(id_reserva, fecha) " +
+            "JOIN reservas r ON r.id_reserva = l.id_reserva AND r.fecha = l.fecha " +
+            "JOIN usuarios u ON u.id_usuario = r.id_usuario " +
+            "JOIN servicios s ON s.id_servicio = r.id_servicio";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.notificaciones.habilitado:true}")
+    private boolean habilitado;
+
+    // Sólo los estados que se avisan al cliente; el resto (p. ej. Finalizada) devuelve null
+    public static String tipoPara(String estado) {
+        if ("Confirmada".equals(estado)) {
+            return TIPO_CONFIRMADA;
+        }
+        if ("Rechazada".equals(estado)) {
+            return TIPO_RECHAZADA;
+        }
+        return null;
+    }
+
+    // La reserva tiene que traer cliente y servicio (la recién creada o la de findDetalleByIdReserva)
+    public void registrar(Reserva reserva, String tipo) {
+        if (!habilitado || tipo == null) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_NOTIFICACION,
+                reserva.getIdReserva(),
+                tipo,
+                reserva.getUsuario().getEmail(),
+                reserva.getUsuario().getNombre(),
+                reserva.getUsuario().getTelefono(),
+                reserva.getServicio().getNombreServicio(),
+                Date.valueOf(reserva.getFecha()),
+                Time.valueOf(reserva.getHora()));
+    }
+
+    public void registrarLote(Collection<Reserva> reservas, String tipo) {
+        if (!habilitado || tipo == null || reservas.isEmpty()) {
+            return;
+        }
+        Object[] ids = reservas.stream().map(Reserva::getIdReserva).toArray();
+        Object[] fechas = reservas.stream().map(r -> Date.valueOf(r.getFecha())).toArray();
+        jdbcTemplate.update(INSERT_NOTIFICACIONES_LOTE, ps -> {
+            ps.setString(1, tipo);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(3, ps.getConnection().createArrayOf("date", fechas));
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.reservas.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+// Mantiene las particiones mensuales de reservas (funciones de las migraciones V1, V6 y V7): crea las de los
+// próximos meses y pasa a reservas_historico las que quedaron fuera del horizonte de retención. Las funciones
+// toman un bloqueo consultivo, así que varias instancias pueden correrlo a la vez.
+@Service
+public class ParticionesReservasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionesReservasService.class);
+
+    private static final String PREFIJO_PARTICION = "reservas_";
+    private static final DateTimeFormatter FORMATO_PARTICION = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String SELECT_PARTICIONES =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'reservas'::regclass";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContadoresReservasService contadoresReservasService;
+
+    @Value("${app.particiones.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${app.particiones.meses-adelante:3}")
+    private int mesesAdelante;
+
+    // Meses completos que quedan en la tabla viva además del actual
+    @Value("${app.particiones.meses-retencion:24}")
+    private int mesesRetencion;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.particiones.cron:0 30 3 * * *}")
+    public void mantener() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            crearParticionesFuturas();
+            if (archivarParticionesVencidas()) {
+                // Los contadores de reportes cubren solo la tabla viva y cuentan por estado
+                contadoresReservasService.reconstruir();
+            }
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron mantener las particiones de reservas (¿base sin migrar?): {}",
+                    e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void crearParticionesFuturas() {
+        YearMonth actual = YearMonth.now();
+        for (int i = 0; i <= mesesAdelante; i++) {
+            LocalDate mes = actual.plusMonths(i).atDay(1);
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT crear_particion_reservas(?)", Boolean.class, Date.valueOf(mes)))) {
+                log.info("Creada la partición de reservas de {}", YearMonth.from(mes));
+            }
+        }
+    }
+
+    // Devuelve true si archivó alguna partición o dio por vencidas reservas Pendiente
+    private boolean archivarParticionesVencidas() {
+        YearMonth limite = YearMonth.now().minusMonths(mesesRetencion);
+        boolean cambios = false;
+        List<String> particiones = jdbcTemplate.queryForList(SELECT_PARTICIONES, String.class);
+        for (String particion : particiones) {
+            YearMonth mes = mesDeParticion(particion);
+            if (mes == null || !mes.isBefore(limite)) {
+                continue;
+            }
+            Map<String, Object> resultado = jdbcTemplate.queryForMap(
+                    "SELECT archivada, vencidas FROM archivar_particion_reservas(?)", Date.valueOf(mes.atDay(1)));
+            int vencidas = ((Number) resultado.get("vencidas")).intValue();
+            if (vencidas > 0) {
+                log.info("Partición {}: {} reservas pendientes vencidas pasaron a Rechazada", particion, vencidas);
+                cambios = true;
+            }
+            if (Boolean.TRUE.equals(resultado.get("archivada"))) {
+                log.info("Partición {} archivada en reservas_historico", particion);
+                cambios = true;
+            } else {
+                // Las Pendiente vencidas ya pasaron a Rechazada (V6); quedan Confirmada sin finalizar
+                log.warn("La partición {} está fuera del horizonte pero tiene reservas confirmadas sin finalizar; no se archivó", particion);
+            }
+        }
+        return cambios;
+    }
+
+    // reservas_2024_03 -> 2024-03; null para reservas_default u otros nombres
+    private static YearMonth mesDeParticion(String nombre) {
+        if (!nombre.startsWith(PREFIJO_PARTICION)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(nombre.substring(PREFIJO_PARTICION.length()), FORMATO_PARTICION);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.reservas.service;
+
+import com.reservas.dto.RankingGestorResponse;
+import com.reservas.entity.Usuario;
+import com.reservas.event.ReservaCambioEvent;
+import com.reservas.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Ranking de gestores mantenido en memoria: se arma con una sola agregación y luego se actualiza por deltas
+@Service
+public class RankingGestoresService {
+
+    private static final Comparator<Entrada> POR_TOTAL = Comparator
+            .comparingLong((Entrada e) -> e.total.get())
+            .thenComparing(e -> -e.idUsuario);
+
+    private static final String SELECT_GESTORES_CARGADOS =
+            "SELECT r.id_reserva, r.id_usuario_gestor FROM unnest(?, ?) AS l(id_reserva, fecha) " +
+            "JOIN reservas r ON r.id_reserva = l.id_reserva AND r.fecha = l.fecha";
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Agregación y lectura de gestores vistos en una sola foto (REPEATABLE READ), siempre en el primario
+    private TransactionTemplate carga;
+
+    private volatile Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    // Igual que en ContadoresReservasService: durante la reconstrucción los cambios se aplican a las entradas
+    // vigentes y además se anotan; al reemplazar, bajo el lock de escritura, se cuentan sobre las nuevas los que
+    // la foto de la agregación no llegó a ver
+    private final ReadWriteLock lockCarga = new ReentrantReadWriteLock();
+    private volatile Queue<ReservaCambioEvent> cambiosDuranteCarga;
+    private volatile Queue<Long> usuariosDuranteCarga;
+
+    @PostConstruct
+    void inicializar() {
+        carga = new TransactionTemplate(transactionManager);
+        carga.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        carga.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // La resincronización periódica corrige la deriva cuando hay varias instancias escribiendo
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.ranking.resync-ms:300000}", initialDelayString = "${app.ranking.resync-ms:300000}")
+    public synchronized void reconstruir() {
+        cambiosDuranteCarga = new ConcurrentLinkedQueue<>();
+        usuariosDuranteCarga = new ConcurrentLinkedQueue<>();
+        Queue<Long> usuarios = usuariosDuranteCarga;
+        try {
+            carga.executeWithoutResult(status -> {
+                Map<Long, Entrada> nuevas = new ConcurrentHashMap<>();
+                for (Object[] fila : usuarioRepository.findUsuariosConReservasGestionadas()) {
+                    Usuario usuario = (Usuario) fila[0];
+                    nuevas.put(usuario.getIdUsuario(), new Entrada(usuario, ((Number) fila[1]).longValue()));
+                }
+                lockCarga.writeLock().lock();
+                try {
+                    Queue<ReservaCambioEvent> cambios = cambiosDuranteCarga;
+                    cambiosDuranteCarga = null;
+                    usuariosDuranteCarga = null;
+                    aplicarNoCargados(nuevas, cambios);
+                    entradas = nuevas;
+                } finally {
+                    lockCarga.writeLock().unlock();
+                }
+            });
+            // Altas, bajas o cambios de nombre posteriores a la foto; fuera de la carga para leerlos vigentes
+            for (Long idUsuario : usuarios) {
+                usuarioRepository.findById(idUsuario).ifPresent(this::actualizarUsuario);
+            }
+        } catch (RuntimeException e) {
+            cambiosDuranteCarga = null;
+            usuariosDuranteCarga = null;
+            throw e;
+        }
+    }
+
+    // Por reserva cuenta el último gestor anotado, descontando el que ya vio la agregación
+    private void aplicarNoCargados(Map<Long, Entrada> nuevas, Queue<ReservaCambioEvent> cambios) {
+        Map<Long, ReservaCambioEvent> ultimos = new LinkedHashMap<>();
+        for (ReservaCambioEvent evento : cambios) {
+            ultimos.put(evento.getIdReserva(), evento);
+        }
+        if (ultimos.isEmpty()) {
+            return;
+        }
+
+        Object[] ids = ultimos.keySet().toArray();
+        Object[] fechas = ultimos.values().stream().map(e -> Date.valueOf(e.getFecha())).toArray();
+        Map<Long, Long> cargados = new HashMap<>();
+        jdbcTemplate.query(SELECT_GESTORES_CARGADOS, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("date", fechas));
+        }, rs -> {
+            cargados.put(rs.getLong(1), rs.getObject(2, Long.class));
+        });
+
+        for (ReservaCambioEvent evento : ultimos.values()) {
+            Long visto = cargados.get(evento.getIdReserva());
+            if (Objects.equals(visto, evento.getIdGestorNuevo())) {
+                continue;
+            }
+            sumar(nuevas, visto, -1);
+            sumar(nuevas, evento.getIdGestorNuevo(), 1);
+        }
+    }
+
+    private static void sumar(Map<Long, Entrada> destino, Long idGestor, long delta) {
+        Entrada entrada = idGestor != null ? destino.get(idGestor) : null;
+        if (entrada != null) {
+            entrada.total.addAndGet(delta);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservaCambio(ReservaCambioEvent evento) {
+        if (Objects.equals(evento.getIdGestorAnterior(), evento.getIdGestorNuevo())) {
+            return;
+        }
+        boolean gestorNuevoFaltante;
+        lockCarga.readLock().lock();
+        try {
+            Queue<ReservaCambioEvent> cambios = cambiosDuranteCarga;
+            if (cambios != null) {
+                cambios.add(evento);
+            }
+            gestorNuevoFaltante = aplicarCambio(evento);
+        } finally {
+            lockCarga.readLock().unlock();
+        }
+        if (gestorNuevoFaltante) {
+            // Gestor que aún no estaba en el ranking: el conteo inicial ya incluye esta reserva
+            usuarioRepository.findById(evento.getIdGestorNuevo()).ifPresent(this::actualizarUsuario);
+        }
+    }
+
+    // Devuelve true si el gestor nuevo no tiene entrada todavía
+    private boolean aplicarCambio(ReservaCambioEvent evento) {
+        Map<Long, Entrada> entradas = this.entradas;
+        if (evento.getIdGestorAnterior() != null) {
+            Entrada anterior = entradas.get(evento.getIdGestorAnterior());
+            if (anterior != null) {
+                anterior.total.decrementAndGet();
+            }
+        }
+        if (evento.getIdGestorNuevo() != null) {
+            Entrada nueva = entradas.get(evento.getIdGestorNuevo());
+            if (nueva != null) {
+                nueva.total.incrementAndGet();
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void actualizarUsuario(Usuario usuario) {
+        lockCarga.readLock().lock();
+        try {
+            Queue<Long> usuarios = usuariosDuranteCarga;
+            if (usuarios != null) {
+                usuarios.add(usuario.getIdUsuario());
+            }
+            aplicarUsuario(usuario);
+        } finally {
+            lockCarga.readLock().unlock();
+        }
+    }
+
+    private void aplicarUsuario(Usuario usuario) {
+        Map<Long, Entrada> entradas = this.entradas;
+        if (!Boolean.TRUE.equals(usuario.getActivo()) || Usuario.Rol.CLIENTE.equals(usuario.getRol())) {
+            entradas.remove(usuario.getIdUsuario());
+            return;
+        }
+        Entrada actual = entradas.get(usuario.getIdUsuario());
+        long total;
+        if (actual != null) {
+            total = actual.total.get();
+        } else {
+            Integer conteo = usuarioRepository.countReservasGestionadasByUsuario(usuario.getIdUsuario());
+            total = conteo != null ? conteo : 0;
+        }
+        entradas.put(usuario.getIdUsuario(), new Entrada(usuario, total));
+    }
+
+    public List<RankingGestorResponse> obtenerTop(int limite) {
+        if (limite <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Entrada> top = new PriorityQueue<>(limite, POR_TOTAL);
+        for (Entrada entrada : entradas.values()) {
+            if (top.size() < limite) {
+                top.offer(entrada);
+            } else if (POR_TOTAL.compare(entrada, top.peek()) > 0) {
+                top.poll();
+                top.offer(entrada);
+            }
+        }
+
+        List<Entrada> ordenadas = new ArrayList<>(top);
+        ordenadas.sort(POR_TOTAL.reversed());
+        List<RankingGestorResponse> ranking = new ArrayList<>(ordenadas.size());
+        for (Entrada entrada : ordenadas) {
+            ranking.add(new RankingGestorResponse(entrada.idUsuario, entrada.nombre, entrada.email, entrada.total.get()));
+        }
+        return ranking;
+    }
+
+    private static class Entrada {
+        private final Long idUsuario;
+        private final String nombre;
+        private final String email;
+        private final AtomicLong total;
+
+        Entrada(Usuario usuario, long total) {
+            this.idUsuario = usuario.getIdUsuario();
+            this.nombre = usuario.getNombre();
+            this.email = usuario.getEmail();
+            this.total = new AtomicLong(total);
+        }
+    }
+}
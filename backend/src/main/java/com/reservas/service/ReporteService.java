@@ -0,0 +1,142 @@
+package com.reservas.service;
+
+import com.reservas.event.ReservaCambioEvent;
+import com.reservas.repository.ReservaRepository;
+import com.reservas.repository.ServicioRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ReporteService {
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ServicioRepository servicioRepository;
+
+    @Autowired
+    private ContadoresReservasService contadoresReservasService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // TTL del resumen cacheado; 0 desactiva la caché
+    @Value("${app.reportes.resumen-ttl-ms:5000}")
+    private long resumenTtlMs;
+
+    private volatile Snapshot snapshot;
+
+    // Transacción de lectura propia de la vía SQL: con réplica configurada la resuelve la réplica. Las que abre
+    // Spring Data por su cuenta se quedan en el primario (ver RuteoLecturaDataSource)
+    private TransactionTemplate lectura;
+
+    @PostConstruct
+    void inicializar() {
+        lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+    }
+
+    // Sin @Transactional: con los contadores cargados no se toca la base (ni se toma conexión); sólo la vía SQL
+    // abre una transacción
+    public Map<String, Object> obtenerResumen() {
+        if (contadoresReservasService.listo()) {
+            return resumenDesdeContadores(LocalDate.now());
+        }
+
+        // Mientras los contadores no estén cargados se usa la agregación SQL con caché corta
+        Snapshot actual = snapshot;
+        long ahora = System.currentTimeMillis();
+        if (actual != null && ahora - actual.creadoEn < resumenTtlMs) {
+            return actual.resumen;
+        }
+
+        Map<String, Object> resumen = lectura.execute(status -> calcularResumen(LocalDate.now()));
+        snapshot = new Snapshot(resumen, ahora);
+        return resumen;
+    }
+
+    public List<Object[]> obtenerServiciosPopulares() {
+        if (contadoresReservasService.listo()) {
+            return contadoresReservasService.serviciosPopulares();
+        }
+        return lectura.execute(status -> servicioRepository.findServiceUsageStats());
+    }
+
+    public List<Object[]> obtenerReservasMensuales(int year) {
+        if (contadoresReservasService.listo()) {
+            return contadoresReservasService.reservasMensualesConfirmadas(year);
+        }
+        return lectura.execute(status ->
+                reservaRepository.findMonthlyReservationStats(LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1)));
+    }
+
+    // Los cambios hechos en esta instancia se ven de inmediato; los de otras instancias tras el TTL
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservaCambio(ReservaCambioEvent evento) {
+        snapshot = null;
+    }
+
+    private Map<String, Object> resumenDesdeContadores(LocalDate hoy) {
+        Map<String, Object> resumen = new HashMap<>();
+        resumen.put("totalReservas", contadoresReservasService.contarTotal());
+        resumen.put("reservasPendientes", contadoresReservasService.contarPorEstado("Pendiente"));
+        resumen.put("reservasConfirmadas", contadoresReservasService.contarPorEstado("Confirmada"));
+        resumen.put("reservasRechazadas", contadoresReservasService.contarPorEstado("Rechazada"));
+        resumen.put("reservasHoy", contadoresReservasService.contarPorFechaYEstado(hoy, "Confirmada")
+                + contadoresReservasService.contarPorFechaYEstado(hoy, "Pendiente"));
+        return resumen;
+    }
+
+    private Map<String, Object> calcularResumen(LocalDate hoy) {
+        long totalReservas = 0;
+        long reservasPendientes = 0;
+        long reservasConfirmadas = 0;
+        long reservasRechazadas = 0;
+        long reservasHoy = 0;
+
+        for (Object[] fila : reservaRepository.countByEstadoWithDate(hoy)) {
+            String estado = (String) fila[0];
+            long total = ((Number) fila[1]).longValue();
+            totalReservas += total;
+            reservasHoy += fila[2] != null ? ((Number) fila[2]).longValue() : 0;
+
+            if ("Pendiente".equals(estado)) {
+                reservasPendientes = total;
+            } else if ("Confirmada".equals(estado)) {
+                reservasConfirmadas = total;
+            } else if ("Rechazada".equals(estado)) {
+                reservasRechazadas = total;
+            }
+        }
+
+        Map<String, Object> resumen = new HashMap<>();
+        resumen.put("totalReservas", totalReservas);
+        resumen.put("reservasPendientes", reservasPendientes);
+        resumen.put("reservasConfirmadas", reservasConfirmadas);
+        resumen.put("reservasRechazadas", reservasRechazadas);
+        resumen.put("reservasHoy", reservasHoy);
+        return Map.copyOf(resumen);
+    }
+
+    private static class Snapshot {
+        private final Map<String, Object> resumen;
+        private final long creadoEn;
+
+        Snapshot(Map<String, Object> resumen, long creadoEn) {
+            this.resumen = resumen;
+            this.creadoEn = creadoEn;
+        }
+    }
+}
@@ -1,26 +1,52 @@
 package com.reservas.service;
 
+import com.reservas.dto.LoteReservasResponse;
+import com.reservas.dto.PaginaReservasResponse;
 import com.reservas.dto.ReservaRequest;
 import com.reservas.dto.ReservaResponse;
 import com.reservas.entity.Reserva;
 import com.reservas.entity.Servicio;
 import com.reservas.entity.Usuario;
+import com.reservas.event.ReservaCambioEvent;
+import com.reservas.exception.HorarioNoDisponibleException;
 import com.reservas.repository.ReservaRepository;
 import com.reservas.repository.ServicioRepository;
 import com.reservas.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("reservas.servicio")
 @Transactional
 public class ReservaService {
 
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+
+    // Cada partición mensual tiene su propia restricción: reservas_AAAA_MM_sin_superposicion
+    public static final String RESTRICCION_SIN_SUPERPOSICION = "_sin_superposicion";
+
     @Autowired
     private ReservaRepository reservaRepository;
 
@@ -30,32 +56,56 @@ public class ReservaService {
     @Autowired
     private ServicioRepository servicioRepository;
 
+    @Autowired
+    private ClientesService clientesService;
+
+    @Autowired
+    private NotificacionesService notificacionesService;
+
+    @Autowired
+    private DisponibilidadService disponibilidadService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public ReservaResponse crearReserva(ReservaRequest request) {
-        Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
-                .orElseGet(() -> {
-                    Usuario nuevoUsuario = new Usuario();
-                    nuevoUsuario.setNombre(request.getNombre());
-                    nuevoUsuario.setTelefono(request.getTelefono());
-                    nuevoUsuario.setEmail(request.getEmail());
-                    nuevoUsuario.setRol(Usuario.Rol.CLIENTE);
-                    return usuarioRepository.save(nuevoUsuario);
-                });
+        Usuario usuario = clientesService.obtenerOCrear(request.getNombre(), request.getTelefono(), request.getEmail());
 
         Servicio servicio = servicioRepository.findById(request.getIdServicio())
                 .orElseThrow(() -> new RuntimeException("Servicio no encontrado"));
 
+        LocalTime horaFin = calcularHoraFin(request.getHora(), servicio);
+        disponibilidadService.reservarHorario(servicio, request.getFecha(), request.getHora(), horaFin);
+
         Reserva reserva = new Reserva();
         reserva.setUsuario(usuario);
         reserva.setServicio(servicio);
         reserva.setFecha(request.getFecha());
         reserva.setHora(request.getHora());
+        reserva.setHoraFin(horaFin);
         reserva.setObservaciones(request.getObservaciones());
         reserva.setEstado("Pendiente");
 
-        Reserva reservaGuardada = reservaRepository.save(reserva);
+        Reserva reservaGuardada;
+        try {
+            reservaGuardada = reservaRepository.saveAndFlush(reserva);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia tomó el mismo horario: lo rechaza la restricción de exclusión de la base
+            if (e.getMessage() != null && e.getMessage().contains(RESTRICCION_SIN_SUPERPOSICION)) {
+                throw new HorarioNoDisponibleException();
+            }
+            throw e;
+        } catch (PessimisticLockingFailureException e) {
+            // Inserciones superpuestas simultáneas pueden trabarse al verificar la restricción de exclusión:
+            // PostgreSQL aborta una con "deadlock detected" en lugar de informar la violación
+            throw new HorarioNoDisponibleException();
+        }
+        notificacionesService.registrar(reservaGuardada, NotificacionesService.TIPO_CREADA);
+        publicarCambio(reservaGuardada, null, null);
         return new ReservaResponse(reservaGuardada);
     }
 
+    @Transactional(readOnly = true)
     public List<ReservaResponse> obtenerTodasLasReservas() {
         return reservaRepository.findAllOrderByFechaDesc()
                 .stream()
@@ -63,6 +113,61 @@ public class ReservaService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public PaginaReservasResponse obtenerPaginaReservas(String cursor, Integer limite) {
+        int tamanio = limite == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        // Se pide una fila extra para saber si existe una página siguiente sin hacer COUNT
+        Pageable pageable = PageRequest.of(0, tamanio + 1);
+
+        List<Reserva> filas;
+        if (cursor == null || cursor.isBlank()) {
+            filas = reservaRepository.findFirstPageOrderByFechaDesc(pageable);
+        } else {
+            String[] partes = decodificarCursor(cursor);
+            filas = reservaRepository.findPageAfterCursorOrderByFechaDesc(
+                    LocalDate.parse(partes[0]), LocalTime.parse(partes[1]), Long.valueOf(partes[2]), pageable);
+        }
+
+        String siguienteCursor = null;
+        if (filas.size() > tamanio) {
+            filas = filas.subList(0, tamanio);
+            siguienteCursor = codificarCursor(filas.get(tamanio - 1));
+        }
+
+        List<ReservaResponse> reservas = filas.stream()
+                .map(ReservaResponse::new)
+                .collect(Collectors.toList());
+        return new PaginaReservasResponse(reservas, siguienteCursor);
+    }
+
+    private LocalTime calcularHoraFin(LocalTime hora, Servicio servicio) {
+        int duracion = servicio.getDuracionMinutos() != null && servicio.getDuracionMinutos() > 0
+                ? servicio.getDuracionMinutos() : 60;
+        return Reserva.calcularHoraFin(hora, duracion);
+    }
+
+    private String codificarCursor(Reserva reserva) {
+        String valor = reserva.getFecha() + "|" + reserva.getHora() + "|" + reserva.getIdReserva();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\|");
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            LocalDate.parse(partes[0]);
+            LocalTime.parse(partes[1]);
+            Long.valueOf(partes[2]);
+            return partes;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<ReservaResponse> obtenerReservasPorEstado(String estado) {
         return reservaRepository.findByEstado(estado)
                 .stream()
@@ -70,6 +175,7 @@ public class ReservaService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ReservaResponse> obtenerReservasPorFecha(LocalDate fecha) {
         return reservaRepository.findByFecha(fecha)
                 .stream()
@@ -78,18 +184,26 @@ public class ReservaService {
     }
 
     public ReservaResponse actualizarEstadoReserva(Long id, String nuevoEstado) {
-        Reserva reserva = reservaRepository.findById(id)
+        Reserva reserva = reservaRepository.findDetalleByIdReserva(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
         
+        String estadoAnterior = reserva.getEstado();
+        Long idGestorAnterior = idGestor(reserva);
         reserva.setEstado(nuevoEstado);
         Reserva reservaActualizada = reservaRepository.save(reserva);
+        if (!nuevoEstado.equals(estadoAnterior)) {
+            notificacionesService.registrar(reservaActualizada, NotificacionesService.tipoPara(nuevoEstado));
+        }
+        publicarCambio(reservaActualizada, estadoAnterior, idGestorAnterior);
         return new ReservaResponse(reservaActualizada);
     }
 
     public ReservaResponse actualizarEstadoReservaConGestor(Long id, String nuevoEstado, String emailGestor) {
-        Reserva reserva = reservaRepository.findById(id)
+        Reserva reserva = reservaRepository.findDetalleByIdReserva(id)
                 .orElseThrow(() -> new RuntimeException("Reserva no encontrada"));
         
+        String estadoAnterior = reserva.getEstado();
+        Long idGestorAnterior = idGestor(reserva);
         if (emailGestor != null) {
             Usuario usuarioGestor = usuarioRepository.findByEmail(emailGestor)
                     .orElseThrow(() -> new RuntimeException("Usuario gestor no encontrado"));
@@ -98,9 +212,80 @@ public class ReservaService {
         
         reserva.setEstado(nuevoEstado);
         Reserva reservaActualizada = reservaRepository.save(reserva);
+        if (!nuevoEstado.equals(estadoAnterior)) {
+            notificacionesService.registrar(reservaActualizada, NotificacionesService.tipoPara(nuevoEstado));
+        }
+        publicarCambio(reservaActualizada, estadoAnterior, idGestorAnterior);
         return new ReservaResponse(reservaActualizada);
     }
 
+    private void publicarCambio(Reserva reserva, String estadoAnterior, Long idGestorAnterior) {
+        eventPublisher.publishEvent(new ReservaCambioEvent(
+                reserva.getIdReserva(),
+                reserva.getServicio().getIdServicio(),
+                reserva.getFecha(),
+                reserva.getHora(),
+                reserva.getHoraFin(),
+                estadoAnterior,
+                reserva.getEstado(),
+                idGestorAnterior,
+                idGestor(reserva)));
+    }
+
+    private Long idGestor(Reserva reserva) {
+        return reserva.getUsuarioGestor() != null ? reserva.getUsuarioGestor().getIdUsuario() : null;
+    }
+
+    // Resuelve el gestor una vez, bloquea el lote con un SELECT y aplica la transición con un único UPDATE
+    public LoteReservasResponse actualizarEstadoEnLote(List<Long> ids, String nuevoEstado, String emailGestor) {
+        Usuario usuarioGestor = null;
+        if (emailGestor != null) {
+            usuarioGestor = usuarioRepository.findByEmail(emailGestor)
+                    .orElseThrow(() -> new RuntimeException("Usuario gestor no encontrado"));
+        }
+
+        Set<Long> solicitados = new LinkedHashSet<>(ids);
+        Map<Long, Reserva> encontradas = new HashMap<>();
+        for (Reserva reserva : reservaRepository.findAllForUpdateByIdReservaIn(solicitados)) {
+            encontradas.put(reserva.getIdReserva(), reserva);
+        }
+
+        if (!encontradas.isEmpty()) {
+            LocalDateTime ahora = LocalDateTime.now();
+            if (usuarioGestor != null) {
+                reservaRepository.updateEstadoAndGestorByIdReservaIn(encontradas.keySet(), nuevoEstado, usuarioGestor, ahora);
+            } else {
+                reservaRepository.updateEstadoByIdReservaIn(encontradas.keySet(), nuevoEstado, ahora);
+            }
+            // Sólo se avisa a los clientes cuya reserva cambió de estado
+            notificacionesService.registrarLote(encontradas.values().stream()
+                    .filter(reserva -> !nuevoEstado.equals(reserva.getEstado()))
+                    .collect(Collectors.toList()), NotificacionesService.tipoPara(nuevoEstado));
+        }
+
+        List<LoteReservasResponse.ResultadoReserva> resultados = new ArrayList<>(solicitados.size());
+        for (Long id : solicitados) {
+            Reserva reserva = encontradas.get(id);
+            if (reserva == null) {
+                resultados.add(new LoteReservasResponse.ResultadoReserva(id, "no_encontrada", null));
+                continue;
+            }
+            Long idGestorAnterior = idGestor(reserva);
+            eventPublisher.publishEvent(new ReservaCambioEvent(
+                    reserva.getIdReserva(),
+                    reserva.getServicio().getIdServicio(),
+                    reserva.getFecha(),
+                    reserva.getHora(),
+                    reserva.getHoraFin(),
+                    reserva.getEstado(),
+                    nuevoEstado,
+                    idGestorAnterior,
+                    usuarioGestor != null ? usuarioGestor.getIdUsuario() : idGestorAnterior));
+            resultados.add(new LoteReservasResponse.ResultadoReserva(id, "actualizada", nuevoEstado));
+        }
+        return new LoteReservasResponse(encontradas.size(), resultados);
+    }
+
     public ReservaResponse confirmarReserva(Long id) {
         return actualizarEstadoReserva(id, "Confirmada");
     }
@@ -118,8 +303,9 @@ public class ReservaService {
     }
 
 
+    @Transactional(readOnly = true)
     public Optional<ReservaResponse> obtenerReservaPorId(Long id) {
-        return reservaRepository.findById(id)
+        return reservaRepository.findDetalleByIdReserva(id)
                 .map(ReservaResponse::new);
     }
 }
\ No newline at end of file
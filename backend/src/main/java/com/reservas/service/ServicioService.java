@@ -1,22 +1,101 @@
 package com.reservas.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.dto.CatalogoServicios;
+import com.reservas.dto.DisponibilidadResponse;
 import com.reservas.dto.ServicioRequest;
 import com.reservas.dto.ServicioResponse;
 import com.reservas.entity.Servicio;
+import com.reservas.exception.ServicioNoEncontradoException;
 import com.reservas.repository.ServicioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("reservas.servicio")
 public class ServicioService {
 
     @Autowired
     private ServicioRepository servicioRepository;
 
+    @Autowired
+    private ContadoresReservasService contadoresReservasService;
+
+    @Autowired
+    private DisponibilidadService disponibilidadService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Acota cuánto tarda en verse un cambio hecho desde otra instancia
+    @Value("${app.catalogo.ttl-ms:60000}")
+    private long catalogoTtlMs;
+
+    private volatile CatalogoServicios catalogo;
+
+    // Se incrementa en cada invalidación: una reconstrucción que leyó la base antes de un cambio no deja su
+    // resultado cacheado, aunque termine después de que el cambio puso catalogo en null
+    private final AtomicLong generacionCatalogo = new AtomicLong();
+
+    // ReentrantLock y no synchronized: la reconstrucción consulta la base y, con hilos virtuales,
+    // un bloque synchronized fija el hilo portador mientras espera a JDBC
+    private final ReentrantLock catalogoLock = new ReentrantLock();
+
+    public CatalogoServicios obtenerCatalogoActivo() {
+        CatalogoServicios actual = catalogo;
+        if (actual != null && System.currentTimeMillis() - actual.getCreadoEn() < catalogoTtlMs) {
+            return actual;
+        }
+        catalogoLock.lock();
+        try {
+            actual = catalogo;
+            if (actual == null || System.currentTimeMillis() - actual.getCreadoEn() >= catalogoTtlMs) {
+                long generacion = generacionCatalogo.get();
+                actual = construirCatalogo();
+                catalogo = actual;
+                // Se publica y después se revisa: una invalidación que llegue entre ambos pasos también se ve acá
+                if (generacionCatalogo.get() != generacion) {
+                    catalogo = null;
+                }
+            }
+            return actual;
+        } finally {
+            catalogoLock.unlock();
+        }
+    }
+
+    // Se llama con el cambio ya confirmado (save y deleteById corren en su propia transacción)
+    private void invalidarCatalogo() {
+        generacionCatalogo.incrementAndGet();
+        catalogo = null;
+    }
+
+    private CatalogoServicios construirCatalogo() {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(obtenerServiciosActivos());
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+            return new CatalogoServicios(json, etag, System.currentTimeMillis());
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo generar el catálogo de servicios", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<ServicioResponse> obtenerServiciosActivos() {
         return servicioRepository.findAllActiveOrderByName()
                 .stream()
@@ -24,6 +103,7 @@ public class ServicioService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ServicioResponse> obtenerTodosLosServicios() {
         return servicioRepository.findAll()
                 .stream()
@@ -31,6 +111,7 @@ public class ServicioService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Optional<ServicioResponse> obtenerServicioPorId(Long id) {
         return servicioRepository.findById(id)
                 .map(this::convertirADTO);
@@ -45,6 +126,8 @@ public class ServicioService {
         servicio.setActivo(request.getActivo());
         
         Servicio servicioGuardado = servicioRepository.save(servicio);
+        invalidarCatalogo();
+        contadoresReservasService.actualizarServicio(servicioGuardado);
         return convertirADTO(servicioGuardado);
     }
 
@@ -56,11 +139,20 @@ public class ServicioService {
                     servicio.setDescripcion(request.getDescripcion());
                     servicio.setDuracionMinutos(request.getDuracionMinutos());
                     servicio.setActivo(request.getActivo());
-                    return convertirADTO(servicioRepository.save(servicio));
+                    Servicio servicioGuardado = servicioRepository.save(servicio);
+                    invalidarCatalogo();
+                    contadoresReservasService.actualizarServicio(servicioGuardado);
+                    return convertirADTO(servicioGuardado);
                 })
                 .orElseThrow(() -> new RuntimeException("Servicio no encontrado"));
     }
 
+    public List<DisponibilidadResponse> obtenerDisponibilidad(Long id, LocalDate desde, LocalDate hasta) {
+        Servicio servicio = servicioRepository.findById(id)
+                .orElseThrow(ServicioNoEncontradoException::new);
+        return disponibilidadService.obtenerDisponibilidad(servicio, desde, hasta);
+    }
+
     private ServicioResponse convertirADTO(Servicio servicio) {
         return new ServicioResponse(
             servicio.getIdServicio(),
@@ -74,6 +166,14 @@ public class ServicioService {
     }
 
     public void eliminarServicio(Long id) {
+        // deleteById no avisa si el id no existe
+        if (!servicioRepository.existsById(id)) {
+            throw new ServicioNoEncontradoException();
+        }
         servicioRepository.deleteById(id);
+        invalidarCatalogo();
+        // El borrado arrastra en cascada las reservas del servicio
+        contadoresReservasService.reconstruir();
+        disponibilidadService.eliminarServicio(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.reservas.service;
+
+import com.reservas.entity.Usuario;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Tokens de acceso firmados con HMAC-SHA256: <payload>.<firma>, ambos en base64url.
+// El payload lleva id de usuario, rol, emisión, vencimiento y un id de token, así que validar
+// una petición no necesita ir a la base. La revocación (logout, baja de usuario) se guarda en memoria.
+@Service
+public class TokenService {
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int LONGITUD_MINIMA_CLAVE = 32;
+
+    @Value("${app.jwt.secret}")
+    private String secreto;
+
+    @Value("${app.jwt.expiration:86400000}")
+    private long expiracionMs;
+
+    private Mac prototipo;
+
+    // Mac no es thread-safe; cada hilo usa su copia del prototipo ya inicializado con la clave
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::copiarMac);
+
+    // id de token -> vencimiento; se purgan al vencer porque a partir de ahí el token ya no vale
+    private final Map<String, Long> tokensRevocados = new ConcurrentHashMap<>();
+
+    // id de usuario -> instante desde el que se rechazan sus tokens (baja, cambio de rol)
+    private final Map<Long, Long> usuariosRevocados = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void inicializar() throws GeneralSecurityException {
+        byte[] clave = secreto == null ? new byte[0] : secreto.getBytes(StandardCharsets.UTF_8);
+        // Con una clave corta o conocida cualquiera puede firmar tokens de ADMINISTRADOR: no se arranca
+        if (clave.length < LONGITUD_MINIMA_CLAVE) {
+            throw new IllegalStateException("app.jwt.secret (APP_JWT_SECRET) debe tener al menos "
+                    + LONGITUD_MINIMA_CLAVE + " bytes");
+        }
+        prototipo = Mac.getInstance(ALGORITMO);
+        prototipo.init(new SecretKeySpec(clave, ALGORITMO));
+    }
+
+    public String emitir(Usuario usuario) {
+        long ahora = System.currentTimeMillis();
+        byte[] id = new byte[12];
+        RANDOM.nextBytes(id);
+        String payload = usuario.getIdUsuario() + ":" + usuario.getRol().name() + ":" + ahora + ":"
+                + (ahora + expiracionMs) + ":" + BASE64.encodeToString(id);
+        String payloadCodificado = BASE64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return payloadCodificado + "." + BASE64.encodeToString(firmar(payloadCodificado));
+    }
+
+    public Optional<Sesion> verificar(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int punto = token.indexOf('.');
+        if (punto <= 0 || punto == token.length() - 1) {
+            return Optional.empty();
+        }
+        String payloadCodificado = token.substring(0, punto);
+        try {
+            byte[] firma = BASE64_DECODER.decode(token.substring(punto + 1));
+            // Comparación en tiempo constante para no filtrar cuántos bytes de la firma coinciden
+            if (!MessageDigest.isEqual(firma, firmar(payloadCodificado))) {
+                return Optional.empty();
+            }
+            String[] partes = new String(BASE64_DECODER.decode(payloadCodificado), StandardCharsets.UTF_8).split(":");
+            if (partes.length != 5) {
+                return Optional.empty();
+            }
+            Sesion sesion = new Sesion(Long.parseLong(partes[0]), Usuario.Rol.valueOf(partes[1]),
+                    Long.parseLong(partes[2]), Long.parseLong(partes[3]), partes[4]);
+            if (sesion.getExpiraEn() <= System.currentTimeMillis() || revocado(sesion)) {
+                return Optional.empty();
+            }
+            return Optional.of(sesion);
+        } catch (IllegalArgumentException e) {
+            // base64, número o rol mal formados
+            return Optional.empty();
+        }
+    }
+
+    public void revocarToken(String token) {
+        verificar(token).ifPresent(sesion -> tokensRevocados.put(sesion.getIdToken(), sesion.getExpiraEn()));
+    }
+
+    // Invalida todos los tokens emitidos hasta ahora para el usuario; los de un login posterior siguen valiendo
+    public void revocarUsuario(Long idUsuario) {
+        usuariosRevocados.put(idUsuario, System.currentTimeMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.purga-ms:600000}")
+    public void purgarRevocados() {
+        long ahora = System.currentTimeMillis();
+        tokensRevocados.values().removeIf(expira -> expira <= ahora);
+        // Pasada la vida máxima de un token, ya no queda ninguno emitido antes de la revocación
+        usuariosRevocados.values().removeIf(desde -> desde + expiracionMs <= ahora);
+    }
+
+    private boolean revocado(Sesion sesion) {
+        Long desde = usuariosRevocados.get(sesion.getIdUsuario());
+        if (desde != null && sesion.getEmitidoEn() <= desde) {
+            return true;
+        }
+        return !tokensRevocados.isEmpty() && tokensRevocados.containsKey(sesion.getIdToken());
+    }
+
+    private byte[] firmar(String payloadCodificado) {
+        return macs.get().doFinal(payloadCodificado.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac copiarMac() {
+        try {
+            return (Mac) prototipo.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("No se pudo inicializar la firma de tokens", e);
+        }
+    }
+
+    public static class Sesion {
+        private final Long idUsuario;
+        private final Usuario.Rol rol;
+        private final long emitidoEn;
+        private final long expiraEn;
+        private final String idToken;
+
+        public Sesion(Long idUsuario, Usuario.Rol rol, long emitidoEn, long expiraEn, String idToken) {
+            this.idUsuario = idUsuario;
+            this.rol = rol;
+            this.emitidoEn = emitidoEn;
+            this.expiraEn = expiraEn;
+            this.idToken = idToken;
+        }
+
+        // Getters
+        public Long getIdUsuario() { return idUsuario; }
+        public Usuario.Rol getRol() { return rol; }
+        public long getEmitidoEn() { return emitidoEn; }
+        public long getExpiraEn() { return expiraEn; }
+        public String getIdToken() { return idToken; }
+    }
+}
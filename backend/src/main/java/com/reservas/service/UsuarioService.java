@@ -1,47 +1,54 @@
 package com.reservas.service;
 
+import com.reservas.dto.RankingGestorResponse;
 import com.reservas.dto.UsuarioRequest;
 import com.reservas.dto.UsuarioResponse;
 import com.reservas.entity.Usuario;
 import com.reservas.repository.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("reservas.servicio")
 public class UsuarioService {
 
     @Autowired
     private UsuarioRepository usuarioRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private HashContrasenaService hashContrasenaService;
 
+    @Autowired
+    private RankingGestoresService rankingGestoresService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ClientesService clientesService;
+
+    @Transactional(readOnly = true)
     public List<UsuarioResponse> obtenerUsuariosAdministrativos() {
-        return usuarioRepository.findUsuariosAdministrativos()
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return convertirConTotales(usuarioRepository.findUsuariosAdministrativosConTotalGestionadas());
     }
 
+    @Transactional(readOnly = true)
     public List<UsuarioResponse> obtenerTodosLosUsuarios() {
-        return usuarioRepository.findByActivoTrueOrderByNombreAsc()
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return convertirConTotales(usuarioRepository.findActivosConTotalGestionadas());
     }
 
+    @Transactional(readOnly = true)
     public List<UsuarioResponse> obtenerUsuariosPorRol(Usuario.Rol rol) {
-        return usuarioRepository.findByRolOrderByNombreAsc(rol)
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return convertirConTotales(usuarioRepository.findByRolConTotalGestionadas(rol));
     }
 
+    @Transactional(readOnly = true)
     public Optional<UsuarioResponse> obtenerUsuarioPorId(Long id) {
         return usuarioRepository.findById(id)
                 .map(this::convertirADTO);
@@ -65,11 +72,13 @@ public class UsuarioService {
         usuario.setActivo(request.getActivo());
         
         if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            usuario.setPassword(passwordEncoder.encode(request.getPassword()));
+            usuario.setPassword(hashContrasenaService.codificar(request.getPassword()));
         }
 
         Usuario usuarioGuardado = usuarioRepository.save(usuario);
-        return convertirADTO(usuarioGuardado);
+        rankingGestoresService.actualizarUsuario(usuarioGuardado);
+        // Un usuario recién creado todavía no gestionó reservas
+        return convertirADTO(usuarioGuardado, 0);
     }
 
     public UsuarioResponse actualizarUsuario(Long id, UsuarioRequest request) {
@@ -80,6 +89,12 @@ public class UsuarioService {
                         throw new RuntimeException("El email ya está registrado");
                     }
 
+                    // Los tokens llevan el rol embebido: si cambia o se desactiva al usuario, dejan de valer
+                    boolean revocarTokens = usuario.getRol() != request.getRol()
+                            || (Boolean.TRUE.equals(usuario.getActivo()) && !Boolean.TRUE.equals(request.getActivo()));
+
+                    String emailAnterior = usuario.getEmail();
+
                     usuario.setNombre(request.getNombre());
                     usuario.setEmail(request.getEmail());
                     usuario.setTelefono(request.getTelefono());
@@ -88,10 +103,19 @@ public class UsuarioService {
                     usuario.setActivo(request.getActivo());
                     
                     if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-                        usuario.setPassword(passwordEncoder.encode(request.getPassword()));
+                        usuario.setPassword(hashContrasenaService.codificar(request.getPassword()));
                     }
 
-                    return convertirADTO(usuarioRepository.save(usuario));
+                    Usuario usuarioGuardado = usuarioRepository.save(usuario);
+                    // Las reservas públicas resuelven al cliente por email desde una caché; se desaloja con el
+                    // cambio ya confirmado
+                    clientesService.invalidar(emailAnterior);
+                    clientesService.invalidar(usuarioGuardado.getEmail());
+                    rankingGestoresService.actualizarUsuario(usuarioGuardado);
+                    if (revocarTokens) {
+                        tokenService.revocarUsuario(usuarioGuardado.getIdUsuario());
+                    }
+                    return convertirADTO(usuarioGuardado);
                 })
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
     }
@@ -102,16 +126,31 @@ public class UsuarioService {
         
         usuario.setActivo(false);
         usuarioRepository.save(usuario);
+        rankingGestoresService.actualizarUsuario(usuario);
+        tokenService.revocarUsuario(id);
     }
 
+    @Transactional(readOnly = true)
     public List<UsuarioResponse> obtenerUsuariosConReservasGestionadas() {
-        return usuarioRepository.findUsuariosConReservasGestionadas()
-                .stream()
-                .map(this::convertirADTO)
+        return convertirConTotales(usuarioRepository.findUsuariosConReservasGestionadas());
+    }
+
+    public List<RankingGestorResponse> obtenerRankingGestores(int limite) {
+        return rankingGestoresService.obtenerTop(limite);
+    }
+
+    private List<UsuarioResponse> convertirConTotales(List<Object[]> filas) {
+        return filas.stream()
+                .map(fila -> convertirADTO((Usuario) fila[0], ((Number) fila[1]).intValue()))
                 .collect(Collectors.toList());
     }
 
     private UsuarioResponse convertirADTO(Usuario usuario) {
+        Integer totalReservas = usuarioRepository.countReservasGestionadasByUsuario(usuario.getIdUsuario());
+        return convertirADTO(usuario, totalReservas != null ? totalReservas : 0);
+    }
+
+    private UsuarioResponse convertirADTO(Usuario usuario, int totalReservasGestionadas) {
         UsuarioResponse response = new UsuarioResponse(
             usuario.getIdUsuario(),
             usuario.getNombre(),
@@ -123,9 +162,7 @@ public class UsuarioService {
             usuario.getCreatedAt(),
             usuario.getUpdatedAt()
         );
-
-        Integer totalReservas = usuarioRepository.countReservasGestionadasByUsuario(usuario.getIdUsuario());
-        response.setTotalReservasGestionadas(totalReservas != null ? totalReservas : 0);
+        response.setTotalReservasGestionadas(totalReservasGestionadas);
 
         return response;
     }
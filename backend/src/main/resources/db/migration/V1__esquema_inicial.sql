@@ -0,0 +1,176 @@
+-- Esquema base: el mismo que dejaba database/schema.sql. Las bases creadas antes de Flyway se toman
+-- como versión 1 (spring.flyway.baseline-on-migrate) una vez aplicados los scripts de database/.
+
+-- Necesaria para combinar igualdad de id_servicio con superposición de rangos en un índice GiST
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Tabla de usuarios
+CREATE TABLE usuarios (
+    id_usuario BIGSERIAL PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    telefono VARCHAR(20) NOT NULL,
+    email VARCHAR(100) UNIQUE NOT NULL,
+    rol VARCHAR(20) DEFAULT 'cliente',
+    password VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    departamento VARCHAR(100),
+    updated_at TIMESTAMP(6),
+    activo BOOLEAN DEFAULT true
+);
+
+-- Tabla de servicios
+CREATE TABLE servicios (
+    id_servicio BIGSERIAL PRIMARY KEY,
+    nombre_servicio VARCHAR(100) NOT NULL,
+    precio INTEGER, -- Cambiado a INTEGER para manejar guaraníes
+    descripcion TEXT,
+    duracion_minutos INTEGER DEFAULT 60,
+    activo BOOLEAN DEFAULT true,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Tabla de reservas, particionada por mes de fecha (requiere PostgreSQL 13 o superior).
+-- La clave primaria incluye fecha porque PostgreSQL lo exige en tablas particionadas; id_reserva sigue
+-- saliendo de una única secuencia. La restricción de no superposición vive en cada partición.
+CREATE TABLE reservas (
+    id_reserva BIGSERIAL,
+    id_usuario BIGINT REFERENCES usuarios(id_usuario),
+    id_servicio BIGINT REFERENCES servicios(id_servicio),
+    fecha DATE NOT NULL,
+    hora TIME NOT NULL,
+    hora_fin TIME NOT NULL,
+    periodo TSRANGE GENERATED ALWAYS AS (tsrange(fecha + hora, fecha + hora_fin, '[)')) STORED,
+    estado VARCHAR(20) DEFAULT 'Pendiente' CHECK (estado IN ('Pendiente', 'Confirmada', 'Rechazada', 'Finalizada')),
+    observaciones TEXT,
+    creado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    actualizado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    id_usuario_gestor BIGINT REFERENCES usuarios(id_usuario),
+    PRIMARY KEY (id_reserva, fecha)
+) PARTITION BY RANGE (fecha);
+
+-- Recibe fechas sin partición propia (importaciones viejas, reservas muy a futuro)
+CREATE TABLE reservas_default PARTITION OF reservas DEFAULT;
+ALTER TABLE reservas_default ADD CONSTRAINT reservas_default_sin_superposicion
+    EXCLUDE USING gist (id_servicio WITH =, periodo WITH &&) WHERE (estado IN ('Pendiente', 'Confirmada'));
+
+-- Historial: mismas columnas; las particiones archivadas se adjuntan acá y se consultan por /api/reservas/historico
+CREATE TABLE reservas_historico (LIKE reservas INCLUDING DEFAULTS INCLUDING GENERATED) PARTITION BY RANGE (fecha);
+
+-- Funciones de mantenimiento de las particiones mensuales de reservas.
+-- La aplicación las invoca a diario (ParticionesReservasService).
+
+-- Crea la partición del mes que contiene p_mes con su restricción de no superposición.
+-- PostgreSQL no admite restricciones de exclusión sobre la tabla particionada, pero una reserva nunca cruza
+-- de un día a otro, así que dos reservas superpuestas siempre caen en la misma partición.
+-- Si reservas_default ya tiene filas de ese mes, las mueve a la partición nueva. Devuelve false si ya existía.
+CREATE OR REPLACE FUNCTION crear_particion_reservas(p_mes DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    desde DATE := date_trunc('month', p_mes)::date;
+    hasta DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'reservas_' || to_char(p_mes, 'YYYY_MM');
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    CREATE TEMP TABLE reservas_a_mover AS
+        SELECT id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+               creado_en, actualizado_en, id_usuario_gestor
+        FROM reservas_default
+        WHERE fecha >= desde AND fecha < hasta;
+    DELETE FROM reservas_default WHERE fecha >= desde AND fecha < hasta;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF reservas FOR VALUES FROM (%L) TO (%L)', nombre, desde, hasta);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist (id_servicio WITH =, periodo WITH &&) '
+                   'WHERE (estado IN (''Pendiente'', ''Confirmada''))', nombre, nombre || '_sin_superposicion');
+
+    INSERT INTO reservas (id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+                          creado_en, actualizado_en, id_usuario_gestor)
+        SELECT * FROM reservas_a_mover;
+    DROP TABLE reservas_a_mover;
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Pasa la partición del mes de p_mes de reservas a reservas_historico: se desprende y se vuelve a adjuntar,
+-- sin copiar filas. No archiva meses que todavía tengan reservas Pendiente o Confirmada.
+CREATE OR REPLACE FUNCTION archivar_particion_reservas(p_mes DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    desde DATE := date_trunc('month', p_mes)::date;
+    hasta DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'reservas_' || to_char(p_mes, 'YYYY_MM');
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                   WHERE i.inhparent = 'reservas'::regclass AND c.relname = nombre) THEN
+        RETURN false;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM reservas WHERE fecha >= desde AND fecha < hasta
+               AND estado IN ('Pendiente', 'Confirmada')) THEN
+        RAISE NOTICE 'La partición % tiene reservas activas, no se archiva', nombre;
+        RETURN false;
+    END IF;
+
+    EXECUTE format('ALTER TABLE reservas DETACH PARTITION %I', nombre);
+    EXECUTE format('ALTER TABLE reservas_historico ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nombre, desde, hasta);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particiones del mes anterior a tres meses adelante; la aplicación crea las siguientes
+SELECT crear_particion_reservas((date_trunc('month', CURRENT_DATE) + make_interval(months => m))::date)
+FROM generate_series(-1, 3) AS m;
+
+-- Tabla de permisos de usuario (nueva tabla)
+CREATE TABLE permisos_usuario (
+    id_permiso BIGSERIAL PRIMARY KEY,
+    id_usuario BIGINT NOT NULL REFERENCES usuarios(id_usuario),
+    modulo VARCHAR(50) NOT NULL,
+    activo BOOLEAN DEFAULT true,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(id_usuario, modulo)
+);
+
+-- Crear índices para mejorar el rendimiento
+CREATE INDEX idx_reservas_fecha ON reservas(fecha);
+CREATE INDEX idx_reservas_fecha_hora_id ON reservas(fecha, hora, id_reserva);
+CREATE INDEX idx_reservas_estado ON reservas(estado);
+CREATE INDEX idx_reservas_usuario ON reservas(id_usuario);
+CREATE INDEX idx_usuarios_email ON usuarios(email);
+
+-- Función para actualizar fecha de modificación
+CREATE OR REPLACE FUNCTION update_modified_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.actualizado_en = now();
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+-- Trigger para actualizar fecha de modificación
+CREATE TRIGGER update_reservas_modtime 
+    BEFORE UPDATE ON reservas 
+    FOR EACH ROW EXECUTE FUNCTION update_modified_column();
+
+-- Insertar usuario administrador por defecto
+INSERT INTO usuarios (nombre, telefono, email, rol, password, activo) 
+VALUES ('Administrador', '1234567890', 'admin@reservas.com', 'ADMINISTRADOR', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', true);
+
+-- Insertar permisos completos para el administrador
+INSERT INTO permisos_usuario (id_usuario, modulo, activo) VALUES
+(1, 'dashboard', true),
+(1, 'reservas', true),
+(1, 'gestion-reservas', true),
+(1, 'servicios', true),
+(1, 'usuarios', true),
+(1, 'clientes', true),
+(1, 'reportes', true),
+(1, 'configuracion', true);
+
+-- Insertar servicios de ejemplo con precios en guaraníes
+INSERT INTO servicios (nombre_servicio, precio, descripcion, duracion_minutos) VALUES
+('Consulta General', 250000, 'Consulta médica general', 30),
+('Limpieza Dental', 400000, 'Limpieza y revisión dental', 45),
+('Corte de Cabello', 125000, 'Corte de cabello básico', 30),
+('Manicure', 75000, 'Manicure completo', 45),
+('Masaje Relajante', 300000, 'Masaje de relajación', 60);
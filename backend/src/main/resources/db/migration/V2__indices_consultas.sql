@@ -0,0 +1,25 @@
+-- Índices alineados con las consultas reales de los repositorios y servicios; IndicesReservasTest comprueba los planes.
+-- Sobre la tabla particionada cada CREATE INDEX se propaga a todas las particiones, presentes y futuras.
+
+-- findByFechaAndEstado y countReservationsByDate: igualdad en fecha y filtro por estado
+CREATE INDEX IF NOT EXISTS idx_reservas_fecha_estado ON reservas(fecha, estado);
+
+-- Bandeja de pendientes (findPendingReservationsOrderByCreated, findByEstado('Pendiente')) en orden de llegada
+CREATE INDEX IF NOT EXISTS idx_reservas_pendientes_creado ON reservas(creado_en) WHERE estado = 'Pendiente';
+
+-- Agenda (findHorariosOcupados*): solo las reservas que ocupan horario, con la hora incluida para no ir al heap
+CREATE INDEX IF NOT EXISTS idx_reservas_activas_fecha ON reservas(fecha, id_servicio, hora)
+    WHERE estado IN ('Pendiente', 'Confirmada');
+
+-- findByServicio_IdServicio y la clave foránea a servicios
+CREATE INDEX IF NOT EXISTS idx_reservas_servicio_fecha ON reservas(id_servicio, fecha);
+
+-- countReservasGestionadasByUsuario, ranking de gestores y la clave foránea a usuarios
+CREATE INDEX IF NOT EXISTS idx_reservas_gestor ON reservas(id_usuario_gestor) WHERE id_usuario_gestor IS NOT NULL;
+
+-- Finalizador y findMonthlyReservationStats: confirmadas por fecha y fin de turno
+CREATE INDEX IF NOT EXISTS idx_reservas_confirmadas_fin ON reservas(fecha, hora_fin) WHERE estado = 'Confirmada';
+
+-- Cubiertos por índices más amplios: fecha es prefijo de idx_reservas_fecha_hora_id y email ya tiene UNIQUE
+DROP INDEX IF EXISTS idx_reservas_fecha;
+DROP INDEX IF EXISTS idx_usuarios_email;
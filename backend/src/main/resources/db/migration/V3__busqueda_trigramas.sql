@@ -0,0 +1,22 @@
+-- Búsqueda de clientes y servicios (GET /api/buscar) con índices de trigramas, sin distinguir mayúsculas ni tildes.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() no es IMMUTABLE porque depende del search_path; fijando el diccionario se puede indexar
+CREATE OR REPLACE FUNCTION normalizar_busqueda(texto TEXT) RETURNS TEXT AS $$
+    SELECT lower(public.unaccent('public.unaccent'::regdictionary, texto))
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT;
+
+-- Texto normalizado guardado en la fila: filtrar y ordenar no vuelve a llamar a unaccent por cada candidato.
+-- Reescribe la tabla al agregarse (bloqueo exclusivo mientras dura)
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS busqueda TEXT
+    GENERATED ALWAYS AS (normalizar_busqueda(nombre || ' ' || email || ' ' || telefono)) STORED;
+
+-- GiST y no GIN: además del LIKE '%texto%' resuelve ORDER BY busqueda <->> texto recorriendo el índice
+-- por cercanía, así que un término muy común corta en las primeras filas en vez de ordenar todas las coincidencias
+CREATE INDEX IF NOT EXISTS idx_usuarios_busqueda ON usuarios
+    USING gist (busqueda gist_trgm_ops(siglen = 256))
+    WHERE rol = 'CLIENTE';
+
+CREATE INDEX IF NOT EXISTS idx_servicios_busqueda ON servicios
+    USING gin (normalizar_busqueda(nombre_servicio) gin_trgm_ops);
@@ -0,0 +1,12 @@
+-- Respuestas guardadas por Idempotency-Key para POST /api/reservas cuando varias instancias comparten la base
+-- (app.idempotencia.tabla=true). La fila se escribe en la misma transacción que crea la reserva.
+CREATE TABLE IF NOT EXISTS claves_idempotencia (
+    clave VARCHAR(255) PRIMARY KEY,
+    huella CHAR(64) NOT NULL,
+    respuesta JSONB NOT NULL,
+    creado_en TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expira_en TIMESTAMP NOT NULL
+);
+
+-- Purga periódica de las claves vencidas
+CREATE INDEX IF NOT EXISTS idx_claves_idempotencia_expira ON claves_idempotencia(expira_en);
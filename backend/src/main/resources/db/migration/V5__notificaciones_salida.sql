@@ -0,0 +1,23 @@
+-- Outbox de notificaciones a clientes: la fila se escribe en la misma transacción que crea, confirma o rechaza
+-- la reserva, y DespachadorNotificacionesService la envía después fuera de la petición. Guarda una copia de los
+-- datos del mensaje para no depender de cambios posteriores en la reserva o el cliente.
+CREATE TABLE IF NOT EXISTS notificaciones_salida (
+    id_notificacion BIGSERIAL PRIMARY KEY,
+    id_reserva BIGINT NOT NULL,
+    tipo VARCHAR(20) NOT NULL CHECK (tipo IN ('creada', 'confirmada', 'rechazada')),
+    email VARCHAR(100) NOT NULL,
+    nombre VARCHAR(100) NOT NULL,
+    telefono VARCHAR(20) NOT NULL,
+    nombre_servicio VARCHAR(100) NOT NULL,
+    fecha DATE NOT NULL,
+    hora TIME NOT NULL,
+    estado VARCHAR(20) NOT NULL DEFAULT 'Pendiente' CHECK (estado IN ('Pendiente', 'Fallida')),
+    intentos INTEGER NOT NULL DEFAULT 0,
+    proximo_intento TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ultimo_error TEXT,
+    creado_en TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Lo que reclama el despachador: pendientes cuyo próximo intento ya llegó, en orden
+CREATE INDEX IF NOT EXISTS idx_notificaciones_pendientes ON notificaciones_salida(proximo_intento)
+    WHERE estado = 'Pendiente';
@@ -0,0 +1,33 @@
+-- Una reserva Pendiente que nadie confirmó ni rechazó antes de su fecha ya no se va a atender, pero bloqueaba para
+-- siempre el archivo de su partición. Al archivar un mes, las Pendiente con fecha pasada se dan por Rechazadas
+-- (sin notificar al cliente); las Confirmada pasadas siguen bloqueando hasta que el finalizador las cierre.
+CREATE OR REPLACE FUNCTION archivar_particion_reservas(p_mes DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    desde DATE := date_trunc('month', p_mes)::date;
+    hasta DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'reservas_' || to_char(p_mes, 'YYYY_MM');
+    vencidas INTEGER;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                   WHERE i.inhparent = 'reservas'::regclass AND c.relname = nombre) THEN
+        RETURN false;
+    END IF;
+
+    UPDATE reservas SET estado = 'Rechazada'
+    WHERE fecha >= desde AND fecha < LEAST(hasta, CURRENT_DATE) AND estado = 'Pendiente';
+    GET DIAGNOSTICS vencidas = ROW_COUNT;
+    IF vencidas > 0 THEN
+        RAISE NOTICE 'Partición %: % reservas pendientes vencidas pasan a Rechazada', nombre, vencidas;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM reservas WHERE fecha >= desde AND fecha < hasta
+               AND estado IN ('Pendiente', 'Confirmada')) THEN
+        RAISE NOTICE 'La partición % tiene reservas activas, no se archiva', nombre;
+        RETURN false;
+    END IF;
+
+    EXECUTE format('ALTER TABLE reservas DETACH PARTITION %I', nombre);
+    EXECUTE format('ALTER TABLE reservas_historico ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nombre, desde, hasta);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
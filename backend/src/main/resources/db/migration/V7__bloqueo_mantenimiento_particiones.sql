@@ -0,0 +1,68 @@
+-- Varias instancias corren el mantenimiento de particiones a la misma hora: sin coordinación, dos CREATE TABLE
+-- PARTITION OF del mismo mes chocan y la instancia que pierde aborta su pasada. Las dos funciones toman el mismo
+-- bloqueo consultivo hasta el fin de la transacción; la segunda espera y encuentra el trabajo hecho.
+CREATE OR REPLACE FUNCTION crear_particion_reservas(p_mes DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    desde DATE := date_trunc('month', p_mes)::date;
+    hasta DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'reservas_' || to_char(p_mes, 'YYYY_MM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('mantenimiento_particiones_reservas'));
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    CREATE TEMP TABLE reservas_a_mover AS
+        SELECT id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+               creado_en, actualizado_en, id_usuario_gestor
+        FROM reservas_default
+        WHERE fecha >= desde AND fecha < hasta;
+    DELETE FROM reservas_default WHERE fecha >= desde AND fecha < hasta;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF reservas FOR VALUES FROM (%L) TO (%L)', nombre, desde, hasta);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist (id_servicio WITH =, periodo WITH &&) '
+                   'WHERE (estado IN (''Pendiente'', ''Confirmada''))', nombre, nombre || '_sin_superposicion');
+
+    INSERT INTO reservas (id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+                          creado_en, actualizado_en, id_usuario_gestor)
+        SELECT * FROM reservas_a_mover;
+    DROP TABLE reservas_a_mover;
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Además de si archivó, informa cuántas Pendiente dio por vencidas: esas filas cambian de estado aunque la
+-- partición no se archive, y la aplicación tiene que reconstruir sus contadores en los dos casos.
+DROP FUNCTION archivar_particion_reservas(DATE);
+CREATE FUNCTION archivar_particion_reservas(p_mes DATE, OUT archivada BOOLEAN, OUT vencidas INTEGER) AS $$
+DECLARE
+    desde DATE := date_trunc('month', p_mes)::date;
+    hasta DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'reservas_' || to_char(p_mes, 'YYYY_MM');
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('mantenimiento_particiones_reservas'));
+    archivada := false;
+    vencidas := 0;
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                   WHERE i.inhparent = 'reservas'::regclass AND c.relname = nombre) THEN
+        RETURN;
+    END IF;
+
+    UPDATE reservas SET estado = 'Rechazada'
+    WHERE fecha >= desde AND fecha < LEAST(hasta, CURRENT_DATE) AND estado = 'Pendiente';
+    GET DIAGNOSTICS vencidas = ROW_COUNT;
+    IF vencidas > 0 THEN
+        RAISE NOTICE 'Partición %: % reservas pendientes vencidas pasan a Rechazada', nombre, vencidas;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM reservas WHERE fecha >= desde AND fecha < hasta
+               AND estado IN ('Pendiente', 'Confirmada')) THEN
+        RAISE NOTICE 'La partición % tiene reservas activas, no se archiva', nombre;
+        RETURN;
+    END IF;
+
+    EXECUTE format('ALTER TABLE reservas DETACH PARTITION %I', nombre);
+    EXECUTE format('ALTER TABLE reservas_historico ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nombre, desde, hasta);
+    archivada := true;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,66 @@
+package com.reservas;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Base de las pruebas de integración: contexto completo contra un PostgreSQL real migrado por Flyway.
+// Por defecto arranca uno embebido (una vez por JVM). Con -Dpruebas.db.url=jdbc:postgresql://... usa esa base,
+// que debe ser descartable: las pruebas la migran y le cargan datos. Sirve donde el embebido no puede correr
+// (p. ej. como root, que initdb rechaza).
+@SpringBootTest(properties = {
+        // Procesos en segundo plano apagados: las pruebas cuentan sentencias y filas
+        "app.finalizador.habilitado=false",
+        "app.notificaciones.habilitado=false",
+        "app.notificaciones.despachador.habilitado=false",
+        "app.particiones.cron=-",
+        "app.jwt.secret=clave-de-pruebas-de-al-menos-32-bytes",
+        // Actuator levanta su propio puerto aun con el servidor simulado; cada contexto toma uno libre
+        "management.server.port=0"
+})
+public abstract class PruebaIntegracion {
+
+    private static String url;
+    private static String usuario;
+    private static String contrasena;
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registry) {
+        iniciarBase();
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> usuario);
+        registry.add("spring.datasource.password", () -> contrasena);
+    }
+
+    private static synchronized void iniciarBase() {
+        if (url != null) {
+            return;
+        }
+        String externa = System.getProperty("pruebas.db.url");
+        if (externa != null && !externa.isBlank()) {
+            url = externa;
+            usuario = System.getProperty("pruebas.db.usuario", "postgres");
+            contrasena = System.getProperty("pruebas.db.contrasena", "");
+            return;
+        }
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignorada) {
+                    // La JVM termina igual
+                }
+            }));
+            url = postgres.getJdbcUrl("postgres", "postgres");
+            usuario = "postgres";
+            contrasena = "";
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo arrancar el PostgreSQL embebido", e);
+        }
+    }
+}
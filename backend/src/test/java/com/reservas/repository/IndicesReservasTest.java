@@ -0,0 +1,281 @@
+package com.reservas.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservas.PruebaIntegracion;
+import com.reservas.service.FinalizadorReservasService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Las consultas de los repositorios tienen que usar índices sobre reservas: con 400.000 reservas cargadas, ningún
+// plan puede tener un Seq Scan sobre una partición con datos. Se llama a cada método y se hace EXPLAIN de las
+// sentencias que llegaron al driver, con los mismos parámetros. Los datos se cargan en una transacción que se deshace.
+// Quedan fuera a propósito las agregaciones que leen la tabla entera (countByEstadoWithDate,
+// countGroupedByFechaEstadoServicio, findServiceUsageStats, ranking de gestores), los listados completos por
+// estado distintos de Pendiente y la precarga de la agenda (findHorariosOcupados sobre toda la ventana): lee todas las
+// reservas activas de esos días y, con las fechas reales como parámetro, recorrer el mes en curso es el plan correcto.
+class IndicesReservasTest extends PruebaIntegracion {
+
+    private static final String SELECT_PARTICIONES_CON_DATOS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'reservas'::regclass AND c.reltuples > 1000";
+
+    private static final String SELECT_IDS_PRUEBA = "SELECT servicio, gestor, cliente FROM ids_prueba";
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private FinalizadorReservasService finalizadorReservasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void consultasSinRecorridoSecuencialSobreReservas() {
+        Map<String, Set<String>> fallas = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.execute((ConnectionCallback<Void>) conexion -> {
+                ScriptUtils.executeSqlScript(conexion, new ClassPathResource("sql/indices_reservas.sql"));
+                return null;
+            });
+            Map<String, Object> ids = jdbcTemplate.queryForMap(SELECT_IDS_PRUEBA);
+            long servicio = ((Number) ids.get("servicio")).longValue() + 17;
+            long gestor = ((Number) ids.get("gestor")).longValue() + 3;
+            long cliente = ((Number) ids.get("cliente")).longValue() + 17;
+            LocalDate hoy = LocalDate.now();
+            LocalDateTime ahora = LocalDateTime.now();
+
+            Map<String, Runnable> consultas = new LinkedHashMap<>();
+            consultas.put("findDetalleByIdReserva", () -> reservaRepository.findDetalleByIdReserva(12345L));
+            consultas.put("findByFecha", () -> reservaRepository.findByFecha(hoy.plusDays(1)));
+            consultas.put("findByFechaBetween", () -> reservaRepository.findByFechaBetween(hoy, hoy.plusDays(6)));
+            consultas.put("findByFechaAndEstado", () -> reservaRepository.findByFechaAndEstado(hoy.plusDays(1), "Confirmada"));
+            consultas.put("findByEstado(Pendiente)", () -> reservaRepository.findByEstado("Pendiente"));
+            consultas.put("findPendingReservationsOrderByCreated", () -> reservaRepository.findPendingReservationsOrderByCreated());
+            consultas.put("findByUsuario_IdUsuario", () -> reservaRepository.findByUsuario_IdUsuario(cliente));
+            consultas.put("findByServicio_IdServicio", () -> reservaRepository.findByServicio_IdServicio(servicio));
+            consultas.put("findFirstPageOrderByFechaDesc", () -> reservaRepository.findFirstPageOrderByFechaDesc(PageRequest.of(0, 21)));
+            consultas.put("findPageAfterCursorOrderByFechaDesc", () -> reservaRepository.findPageAfterCursorOrderByFechaDesc(
+                    hoy.minusDays(30), LocalTime.of(10, 0), 250000L, PageRequest.of(0, 21)));
+            consultas.put("countReservationsByDate", () -> reservaRepository.countReservationsByDate(hoy.plusDays(1)));
+            consultas.put("findAllForUpdateByIdReservaIn", () -> reservaRepository.findAllForUpdateByIdReservaIn(List.of(101L, 202L, 303L)));
+            // La rotación diaria de la agenda carga un solo día al final de la ventana
+            consultas.put("findHorariosOcupados (rotación)", () -> reservaRepository.findHorariosOcupados(
+                    hoy.plusDays(60), hoy.plusDays(60)));
+            consultas.put("findHorariosOcupadosByServicio", () -> reservaRepository.findHorariosOcupadosByServicio(
+                    servicio, hoy, hoy.plusDays(13)));
+            consultas.put("findMonthlyReservationStats", () -> reservaRepository.findMonthlyReservationStats(
+                    LocalDate.of(hoy.getYear() - 1, 1, 1), LocalDate.of(hoy.getYear(), 1, 1)));
+            consultas.put("countReservasGestionadasByUsuario", () -> usuarioRepository.countReservasGestionadasByUsuario(gestor));
+            // El lote y el retraso del finalizador van por JdbcTemplate; el lote se deshace con la transacción
+            consultas.put("FinalizadorReservasService (lote)",
+                    () -> ReflectionTestUtils.invokeMethod(finalizadorReservasService, "finalizarLote", ahora));
+            consultas.put("FinalizadorReservasService (retraso)",
+                    () -> ReflectionTestUtils.invokeMethod(finalizadorReservasService, "actualizarRetraso", ahora));
+
+            List<String> particiones = jdbcTemplate.queryForList(SELECT_PARTICIONES_CON_DATOS, String.class);
+            Map<String, Set<String>> conSeqScan = new LinkedHashMap<>();
+            consultas.forEach((nombre, consulta) -> {
+                List<Sentencia> sentencias = CapturaSentencias.capturar(consulta);
+                assertThat(sentencias).as("Sentencias de " + nombre).isNotEmpty();
+                Set<String> relaciones = new TreeSet<>();
+                for (Sentencia sentencia : sentencias) {
+                    relaciones.addAll(recorridosSecuenciales(sentencia));
+                }
+                relaciones.retainAll(particiones);
+                if (!relaciones.isEmpty()) {
+                    conSeqScan.put(nombre, relaciones);
+                }
+            });
+            return conSeqScan;
+        });
+
+        assertThat(fallas).as("Consultas con Seq Scan sobre particiones de reservas").isEmpty();
+    }
+
+    // Misma sentencia con EXPLAIN adelante y los parámetros repetidos en el mismo orden: el plan es el que
+    // PostgreSQL arma para esos valores
+    private Set<String> recorridosSecuenciales(Sentencia sentencia) {
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) conexion -> {
+            try (PreparedStatement explain = conexion.prepareStatement("EXPLAIN (FORMAT JSON) " + sentencia.sql)) {
+                for (Parametro parametro : sentencia.parametros) {
+                    parametro.aplicar(explain);
+                }
+                try (ResultSet rs = explain.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+        Set<String> relaciones = new TreeSet<>();
+        try {
+            recorrer(objectMapper.readTree(plan), relaciones);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Plan ilegible para " + sentencia.sql, e);
+        }
+        return relaciones;
+    }
+
+    private static void recorrer(JsonNode nodo, Set<String> relaciones) {
+        if ("Seq Scan".equals(nodo.path("Node Type").asText())) {
+            relaciones.add(nodo.path("Relation Name").asText());
+        }
+        for (JsonNode hijo : nodo) {
+            recorrer(hijo, relaciones);
+        }
+    }
+
+    @TestConfiguration
+    static class ConfiguracionCaptura {
+
+        @Bean
+        static BeanPostProcessor envolverDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String nombre) {
+                    return bean instanceof DataSource dataSource ? CapturaSentencias.envolver(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // Envuelve el DataSource y, mientras dura capturar(), anota cada PreparedStatement ejecutado en el hilo con
+    // su SQL y las llamadas set* de sus parámetros
+    static class CapturaSentencias {
+
+        private static final ThreadLocal<List<Sentencia>> CAPTURADAS = new ThreadLocal<>();
+
+        static List<Sentencia> capturar(Runnable consulta) {
+            List<Sentencia> sentencias = new ArrayList<>();
+            CAPTURADAS.set(sentencias);
+            try {
+                consulta.run();
+            } finally {
+                CAPTURADAS.remove();
+            }
+            return sentencias;
+        }
+
+        static DataSource envolver(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (metodo, args, resultado) ->
+                    resultado instanceof Connection conexion ? envolver(conexion) : resultado);
+        }
+
+        private static Connection envolver(Connection conexion) {
+            return proxy(Connection.class, conexion, (metodo, args, resultado) ->
+                    resultado instanceof PreparedStatement sentencia && metodo.getName().equals("prepareStatement")
+                            ? envolver(sentencia, (String) args[0]) : resultado);
+        }
+
+        private static PreparedStatement envolver(PreparedStatement sentencia, String sql) {
+            List<Parametro> parametros = new ArrayList<>();
+            return proxy(PreparedStatement.class, sentencia, (metodo, args, resultado) -> {
+                String nombre = metodo.getName();
+                if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parametros.add(new Parametro(metodo, args));
+                } else if (nombre.equals("clearParameters")) {
+                    parametros.clear();
+                } else if (nombre.startsWith("execute") && (args == null || args.length == 0)) {
+                    List<Sentencia> capturadas = CAPTURADAS.get();
+                    if (capturadas != null) {
+                        capturadas.add(new Sentencia(sql, new ArrayList<>(parametros)));
+                    }
+                }
+                return resultado;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> tipo, T destino, Interceptor interceptor) {
+            InvocationHandler manejador = (instancia, metodo, args) -> {
+                Object resultado;
+                try {
+                    resultado = metodo.invoke(destino, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                return interceptor.despues(metodo, args, resultado);
+            };
+            return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, manejador);
+        }
+
+        private interface Interceptor {
+            Object despues(Method metodo, Object[] args, Object resultado);
+        }
+    }
+
+    private static class Sentencia {
+        private final String sql;
+        private final List<Parametro> parametros;
+
+        Sentencia(String sql, List<Parametro> parametros) {
+            this.sql = sql;
+            this.parametros = parametros;
+        }
+    }
+
+    private static class Parametro {
+        private final Method metodo;
+        private final Object[] args;
+
+        Parametro(Method metodo, Object[] args) {
+            this.metodo = metodo;
+            this.args = args;
+        }
+
+        void aplicar(PreparedStatement destino) throws SQLException {
+            try {
+                metodo.invoke(destino, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException causa) {
+                    throw causa;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.reservas.repository;
+
+import com.reservas.PruebaIntegracion;
+import com.reservas.dto.ReservaResponse;
+import com.reservas.entity.Reserva;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Los listados con @EntityGraph("Reserva.detalle") tienen que traer usuario, servicio y gestor en la misma
+// sentencia: armar ReservaResponse para todas las filas no puede disparar cargas perezosas (N+1)
+class ReservaRepositoryTest extends PruebaIntegracion {
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+    private LocalDate fecha;
+    private Long idCliente;
+    private Long idServicio;
+    private Long idPrimera;
+
+    @BeforeEach
+    void cargarDatos() {
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String sufijo = UUID.randomUUID().toString().substring(0, 8);
+        // Un día propio por prueba dentro de las particiones que crea la migración
+        fecha = LocalDate.now().plusDays(5 + (Math.abs(sufijo.hashCode()) % 60));
+
+        Long idGestor = insertarUsuario("Gestor " + sufijo, "gestor." + sufijo + "@prueba.test", "EMPLEADO");
+        idServicio = insertarServicio("Corte " + sufijo);
+        Long idOtroServicio = insertarServicio("Color " + sufijo);
+
+        for (int i = 0; i < 6; i++) {
+            Long idUsuario = insertarUsuario("Cliente " + i, "cliente" + i + "." + sufijo + "@prueba.test", "CLIENTE");
+            if (i == 0) {
+                idCliente = idUsuario;
+            }
+            Long id = jdbcTemplate.queryForObject(
+                    "INSERT INTO reservas (id_usuario, id_servicio, fecha, hora, hora_fin, estado, id_usuario_gestor) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING id_reserva", Long.class,
+                    idUsuario, i % 2 == 0 ? idServicio : idOtroServicio, fecha,
+                    LocalTime.of(8 + i, 0), LocalTime.of(8 + i, 30),
+                    i < 3 ? "Pendiente" : "Confirmada", i < 3 ? null : idGestor);
+            if (i == 0) {
+                idPrimera = id;
+            }
+        }
+    }
+
+    @Test
+    void findDetalleByIdReserva() {
+        assertUnaSentencia(() -> reservaRepository.findDetalleByIdReserva(idPrimera).stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    void findByEstado() {
+        assertUnaSentencia(() -> reservaRepository.findByEstado("Confirmada"));
+    }
+
+    @Test
+    void findByFecha() {
+        assertUnaSentencia(() -> reservaRepository.findByFecha(fecha));
+    }
+
+    @Test
+    void findByFechaBetween() {
+        assertUnaSentencia(() -> reservaRepository.findByFechaBetween(fecha, fecha.plusDays(1)));
+    }
+
+    @Test
+    void findByUsuario_IdUsuario() {
+        assertUnaSentencia(() -> reservaRepository.findByUsuario_IdUsuario(idCliente));
+    }
+
+    @Test
+    void findByServicio_IdServicio() {
+        assertUnaSentencia(() -> reservaRepository.findByServicio_IdServicio(idServicio));
+    }
+
+    @Test
+    void findByFechaAndEstado() {
+        assertUnaSentencia(() -> reservaRepository.findByFechaAndEstado(fecha, "Confirmada"));
+    }
+
+    @Test
+    void findAllOrderByFechaDesc() {
+        assertUnaSentencia(() -> reservaRepository.findAllOrderByFechaDesc());
+    }
+
+    @Test
+    void findFirstPageOrderByFechaDesc() {
+        assertUnaSentencia(() -> reservaRepository.findFirstPageOrderByFechaDesc(PageRequest.of(0, 50)));
+    }
+
+    @Test
+    void findPageAfterCursorOrderByFechaDesc() {
+        assertUnaSentencia(() -> reservaRepository.findPageAfterCursorOrderByFechaDesc(
+                fecha, LocalTime.of(23, 0), Long.MAX_VALUE, PageRequest.of(0, 50)));
+    }
+
+    @Test
+    void findPendingReservationsOrderByCreated() {
+        assertUnaSentencia(() -> reservaRepository.findPendingReservationsOrderByCreated());
+    }
+
+    private void assertUnaSentencia(Supplier<List<Reserva>> consulta) {
+        estadisticas.clear();
+        List<ReservaResponse> respuestas = transactionTemplate.execute(status -> consulta.get().stream()
+                .map(ReservaResponse::new)
+                .collect(Collectors.toList()));
+
+        assertThat(respuestas).isNotEmpty();
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Long insertarUsuario(String nombre, String email, String rol) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO usuarios (nombre, telefono, email, rol, activo) VALUES (?, '0981000000', ?, ?, true) " +
+                "RETURNING id_usuario", Long.class, nombre, email, rol);
+    }
+
+    private Long insertarServicio(String nombre) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO servicios (nombre_servicio, precio, duracion_minutos) VALUES (?, 100000, 30) " +
+                "RETURNING id_servicio", Long.class, nombre);
+    }
+}
@@ -0,0 +1,91 @@
+package com.reservas.service;
+
+import com.reservas.PruebaIntegracion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+// Un canal de envío caído: cada pasada reprograma con espera exponencial hasta agotar los intentos
+@TestPropertySource(properties = {
+        "app.notificaciones.despachador.habilitado=true",
+        // La pasada programada no corre durante la prueba; se llama a despachar() a mano
+        "app.notificaciones.intervalo-ms=3600000",
+        "app.notificaciones.max-intentos=3",
+        "app.notificaciones.reintento-base-ms=10000"
+})
+class DespachadorNotificacionesServiceTest extends PruebaIntegracion {
+
+    @Autowired
+    private DespachadorNotificacionesService despachador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private EnviadorNotificaciones enviador;
+
+    private Long idNotificacion;
+
+    @BeforeEach
+    void cargarNotificacion() throws Exception {
+        doThrow(new IOException("SMTP caído")).when(enviador).enviar(any());
+        // Vencida hace años: es la primera que reclama el despachador aunque haya otras pendientes
+        idNotificacion = jdbcTemplate.queryForObject(
+                "INSERT INTO notificaciones_salida (id_reserva, tipo, email, nombre, telefono, nombre_servicio, " +
+                "fecha, hora, proximo_intento) VALUES (1, 'creada', ?, 'Cliente', '0981000000', 'Corte', " +
+                "CURRENT_DATE, '10:00', now() - INTERVAL '10 years') RETURNING id_notificacion",
+                Long.class, UUID.randomUUID() + "@prueba.test");
+    }
+
+    @Test
+    void fallosSeReprogramanConEsperaExponencialYTerminanEnFallida() {
+        despachador.despachar();
+        Map<String, Object> primero = estado();
+        assertThat(primero.get("estado")).isEqualTo("Pendiente");
+        assertThat(primero.get("intentos")).isEqualTo(1);
+        assertThat(primero.get("ultimo_error")).isEqualTo("SMTP caído");
+        assertThat(((Number) primero.get("espera")).doubleValue()).isCloseTo(10, within(2.0));
+
+        vencer();
+        despachador.despachar();
+        Map<String, Object> segundo = estado();
+        assertThat(segundo.get("estado")).isEqualTo("Pendiente");
+        assertThat(segundo.get("intentos")).isEqualTo(2);
+        assertThat(((Number) segundo.get("espera")).doubleValue()).isCloseTo(20, within(2.0));
+
+        vencer();
+        despachador.despachar();
+        Map<String, Object> tercero = estado();
+        assertThat(tercero.get("estado")).isEqualTo("Fallida");
+        assertThat(tercero.get("intentos")).isEqualTo(3);
+        assertThat(tercero.get("ultimo_error")).isEqualTo("SMTP caído");
+
+        // Una Fallida no se vuelve a reclamar
+        vencer();
+        despachador.despachar();
+        assertThat(estado().get("intentos")).isEqualTo(3);
+    }
+
+    private Map<String, Object> estado() {
+        return jdbcTemplate.queryForMap(
+                "SELECT estado, intentos, ultimo_error, EXTRACT(EPOCH FROM proximo_intento - now()) AS espera " +
+                "FROM notificaciones_salida WHERE id_notificacion = ?", idNotificacion);
+    }
+
+    private void vencer() {
+        jdbcTemplate.update("UPDATE notificaciones_salida SET proximo_intento = now() - INTERVAL '10 years' " +
+                "WHERE id_notificacion = ?", idNotificacion);
+    }
+}
@@ -0,0 +1,123 @@
+package com.reservas.service;
+
+import com.reservas.PruebaIntegracion;
+import com.reservas.dto.ImportacionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Importación por lotes de 1.000 filas contra la base real, con el reintento fila por fila cuando un lote falla.
+// Las filas van a la partición del mes siguiente y se borran al terminar, para no cambiar las estadísticas que
+// usa IndicesReservasTest.
+class ImportacionReservasServiceTest extends PruebaIntegracion {
+
+    private static final String CABECERA = "nombre,telefono,email,id_servicio,fecha,hora,estado\n";
+    // Turnos de 5 minutos desde las 08:00
+    private static final int HORARIOS_POR_DIA = 100;
+
+    @Autowired
+    private ImportacionReservasService importacionReservasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String sufijo;
+    private LocalDate desde;
+    private Long idServicio;
+
+    @BeforeEach
+    void cargarServicio() {
+        sufijo = UUID.randomUUID().toString().substring(0, 8);
+        desde = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+        idServicio = jdbcTemplate.queryForObject(
+                "INSERT INTO servicios (nombre_servicio, precio, duracion_minutos) VALUES (?, 100000, 5) " +
+                "RETURNING id_servicio", Long.class, "Importado " + sufijo);
+    }
+
+    @AfterEach
+    void borrarDatos() {
+        jdbcTemplate.update("DELETE FROM reservas WHERE id_servicio = ?", idServicio);
+        jdbcTemplate.update("DELETE FROM usuarios WHERE email LIKE ?", "importado%." + sufijo + "@prueba.test");
+        jdbcTemplate.update("DELETE FROM servicios WHERE id_servicio = ?", idServicio);
+    }
+
+    @Test
+    void variosLotesSinErrores() throws IOException {
+        // 2.500 filas: dos lotes completos y uno parcial, 25 días y 50 clientes
+        StringBuilder csv = new StringBuilder(CABECERA);
+        for (int i = 0; i < 2500; i++) {
+            csv.append(fila(i % 50, i, "Confirmada"));
+        }
+
+        ImportacionResponse resultado = importar(csv);
+
+        assertThat(resultado.getLineasProcesadas()).isEqualTo(2500);
+        assertThat(resultado.getReservasCreadas()).isEqualTo(2500);
+        assertThat(resultado.getClientesCreados()).isEqualTo(50);
+        assertThat(resultado.getTotalErrores()).isZero();
+        assertThat(reservasDelServicio()).isEqualTo(2500);
+    }
+
+    @Test
+    void loteConSuperposicionSeReintentaFilaPorFila() throws IOException {
+        StringBuilder csv = new StringBuilder(CABECERA);
+        for (int i = 0; i < 1500; i++) {
+            csv.append(fila(i % 20, i, "Pendiente"));
+        }
+        // Dentro del primer lote (línea 501): mismo horario que la primera fila, el batch entero se deshace
+        csv.insert(inicioDeLinea(csv, 501), fila(99, 0, "Pendiente"));
+        // Rechazada no ocupa el horario: la restricción sólo mira Pendiente y Confirmada
+        csv.append(fila(98, 0, "Rechazada"));
+
+        ImportacionResponse resultado = importar(csv);
+
+        assertThat(resultado.getLineasProcesadas()).isEqualTo(1502);
+        assertThat(resultado.getReservasCreadas()).isEqualTo(1501);
+        assertThat(resultado.getTotalErrores()).isEqualTo(1);
+        assertThat(resultado.getErrores()).singleElement().satisfies(error -> {
+            assertThat(error.getLinea()).isEqualTo(501);
+            assertThat(error.getMensaje()).isEqualTo("El horario se superpone con otra reserva activa del servicio");
+        });
+        assertThat(reservasDelServicio()).isEqualTo(1501);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservas WHERE id_servicio = ? AND fecha = ? AND hora = '08:00' " +
+                "AND estado IN ('Pendiente', 'Confirmada')", Long.class, idServicio, desde)).isEqualTo(1);
+    }
+
+    private ImportacionResponse importar(StringBuilder csv) throws IOException {
+        return importacionReservasService.importar(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private long reservasDelServicio() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservas WHERE id_servicio = ?", Long.class, idServicio);
+    }
+
+    // El turno n es el n-ésimo horario libre a partir de desde a las 08:00
+    private String fila(int cliente, int turno, String estado) {
+        LocalDate fecha = desde.plusDays(turno / HORARIOS_POR_DIA);
+        LocalTime hora = LocalTime.of(8, 0).plusMinutes(5L * (turno % HORARIOS_POR_DIA));
+        return "Cliente " + cliente + ",0981000000,importado" + cliente + "." + sufijo + "@prueba.test,"
+                + idServicio + "," + fecha + "," + hora + "," + estado + "\n";
+    }
+
+    // Posición donde empieza la línea indicada del archivo (la 1 es la cabecera)
+    private static int inicioDeLinea(StringBuilder csv, int linea) {
+        int posicion = 0;
+        for (int i = 1; i < linea; i++) {
+            posicion = csv.indexOf("\n", posicion) + 1;
+        }
+        return posicion;
+    }
+}
@@ -0,0 +1,227 @@
+package com.reservas.service;
+
+import com.reservas.PruebaIntegracion;
+import com.reservas.dto.ReservaRequest;
+import com.reservas.dto.ReservaResponse;
+import com.reservas.dto.ServicioRequest;
+import com.reservas.exception.HorarioNoDisponibleException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Reservas en paralelo contra el índice de agenda en memoria y la restricción de exclusión de la base
+class ReservaServiceConcurrenciaTest extends PruebaIntegracion {
+
+    private static final int HILOS = 64;
+    private static final int INTENTOS = 300;
+
+    @Autowired
+    private ReservaService reservaService;
+
+    @Autowired
+    private ServicioService servicioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService hilos;
+    private String sufijo;
+    private LocalDate fecha;
+    private Long idServicio;
+
+    @BeforeEach
+    void cargarDatos() {
+        hilos = Executors.newFixedThreadPool(HILOS);
+        sufijo = UUID.randomUUID().toString().substring(0, 8);
+        // Dentro de la ventana precargada: un día sin reservas del servicio nuevo
+        fecha = LocalDate.now().plusDays(5 + (Math.abs(sufijo.hashCode()) % 50));
+        idServicio = jdbcTemplate.queryForObject(
+                "INSERT INTO servicios (nombre_servicio, precio, duracion_minutos) VALUES (?, 100000, 60) " +
+                "RETURNING id_servicio", Long.class, "Corte " + sufijo);
+    }
+
+    @AfterEach
+    void detenerHilos() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    void unSoloGanadorPorHorario() throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger ganadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < INTENTOS; i++) {
+            ReservaRequest request = request(i, LocalTime.of(10, 0));
+            tareas.add(hilos.submit(() -> {
+                largada.await();
+                try {
+                    reservaService.crearReserva(request);
+                    ganadas.incrementAndGet();
+                } catch (HorarioNoDisponibleException e) {
+                    rechazadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            // Cualquier otra excepción hace fallar la prueba
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+
+        assertThat(ganadas.get()).isEqualTo(1);
+        assertThat(rechazadas.get()).isEqualTo(INTENTOS - 1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservas WHERE id_servicio = ? AND fecha = ?", Long.class, idServicio, fecha))
+                .isEqualTo(1);
+    }
+
+    // Sin pasar por el índice en memoria: inserciones directas superpuestas, sólo la restricción de exclusión decide
+    @Test
+    void restriccionDeExclusionAdmiteUnaSolaSuperposicion() throws Exception {
+        Long idUsuario = jdbcTemplate.queryForObject(
+                "INSERT INTO usuarios (nombre, telefono, email, rol) VALUES ('Cliente directo', '0981000000', ?, 'CLIENTE') " +
+                "RETURNING id_usuario", Long.class, "directo." + sufijo + "@prueba.test");
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger insertadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (int i = 0; i < INTENTOS; i++) {
+            // Todas se superponen entre sí: empiezan entre 10:00 y 10:29 y duran una hora
+            LocalTime hora = LocalTime.of(10, i % 30);
+            tareas.add(hilos.submit(() -> {
+                largada.await();
+                try {
+                    jdbcTemplate.update("INSERT INTO reservas (id_usuario, id_servicio, fecha, hora, hora_fin) " +
+                            "VALUES (?, ?, ?, ?, ?)", idUsuario, idServicio, fecha, hora, hora.plusHours(1));
+                    insertadas.incrementAndGet();
+                } catch (DataIntegrityViolationException e) {
+                    assertThat(e.getMessage()).contains(ReservaService.RESTRICCION_SIN_SUPERPOSICION);
+                    rechazadas.incrementAndGet();
+                } catch (PessimisticLockingFailureException e) {
+                    // Dos inserciones que esperan una a la otra en la verificación: PostgreSQL aborta una
+                    assertThat(e.getMessage()).contains("deadlock");
+                    rechazadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+
+        assertThat(insertadas.get()).isEqualTo(1);
+        assertThat(rechazadas.get()).isEqualTo(INTENTOS - 1);
+    }
+
+    @Test
+    void violacionDeLaRestriccionSeTraduceAHorarioNoDisponible() {
+        // Una fila que el índice en memoria no conoce (p. ej. escrita por otra instancia)
+        Long idUsuario = jdbcTemplate.queryForObject(
+                "INSERT INTO usuarios (nombre, telefono, email, rol) VALUES ('Cliente directo', '0981000000', ?, 'CLIENTE') " +
+                "RETURNING id_usuario", Long.class, "directo." + sufijo + "@prueba.test");
+        jdbcTemplate.update("INSERT INTO reservas (id_usuario, id_servicio, fecha, hora, hora_fin) VALUES (?, ?, ?, ?, ?)",
+                idUsuario, idServicio, fecha, LocalTime.of(10, 0), LocalTime.of(11, 0));
+
+        assertThatThrownBy(() -> reservaService.crearReserva(request(0, LocalTime.of(10, 30))))
+                .isInstanceOf(HorarioNoDisponibleException.class);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservas WHERE id_servicio = ? AND fecha = ?", Long.class, idServicio, fecha))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void horariosDistintosNoSeSerializan() throws Exception {
+        CountDownLatch reservada = new CountDownLatch(1);
+        CountDownLatch soltar = new CountDownLatch(1);
+        // Una transacción queda abierta con el horario de las 10:00 tomado
+        Future<?> abierta = hilos.submit(() -> transactionTemplate.execute(status -> {
+            reservaService.crearReserva(request(0, LocalTime.of(10, 0)));
+            reservada.countDown();
+            try {
+                soltar.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        try {
+            assertThat(reservada.await(30, TimeUnit.SECONDS)).isTrue();
+
+            // Otro horario del mismo servicio y día no espera a que esa transacción termine
+            Future<ReservaResponse> otra = hilos.submit(() -> reservaService.crearReserva(request(1, LocalTime.of(14, 0))));
+            assertThat(otra.get(10, TimeUnit.SECONDS).getEstado()).isEqualTo("Pendiente");
+        } finally {
+            soltar.countDown();
+        }
+        abierta.get(30, TimeUnit.SECONDS);
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM reservas WHERE id_servicio = ? AND fecha = ?", Long.class, idServicio, fecha))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void cambioDeDuracionRespetaHoraFinGuardada() {
+        ReservaResponse larga = reservaService.crearReserva(request(0, LocalTime.of(10, 0)));
+        servicioService.actualizarServicio(idServicio, servicio(30));
+
+        // La reserva existente sigue ocupando 10:00-11:00 aunque el servicio ahora dure 30 minutos
+        assertThat(horariosLibres()).doesNotContain(LocalTime.of(10, 30)).contains(LocalTime.of(11, 0));
+        assertThatThrownBy(() -> reservaService.crearReserva(request(1, LocalTime.of(10, 30))))
+                .isInstanceOf(HorarioNoDisponibleException.class);
+
+        // Al rechazarla se libera la hora completa que tenía guardada
+        reservaService.rechazarReserva(larga.getIdReserva());
+        assertThat(horariosLibres()).contains(LocalTime.of(10, 0), LocalTime.of(10, 30));
+        reservaService.crearReserva(request(2, LocalTime.of(10, 30)));
+    }
+
+    private List<LocalTime> horariosLibres() {
+        return servicioService.obtenerDisponibilidad(idServicio, fecha, fecha).get(0).getHorariosLibres();
+    }
+
+    private ReservaRequest request(int cliente, LocalTime hora) {
+        ReservaRequest request = new ReservaRequest();
+        request.setNombre("Cliente " + cliente);
+        request.setTelefono("0981000000");
+        request.setEmail("cliente" + cliente + "." + sufijo + "@prueba.test");
+        request.setIdServicio(idServicio);
+        request.setFecha(fecha);
+        request.setHora(hora);
+        return request;
+    }
+
+    private ServicioRequest servicio(int duracionMinutos) {
+        ServicioRequest request = new ServicioRequest();
+        request.setNombreServicio("Corte " + sufijo);
+        request.setPrecio(100000);
+        request.setDuracionMinutos(duracionMinutos);
+        return request;
+    }
+}
@@ -0,0 +1,44 @@
+-- Datos de IndicesReservasTest: corre dentro de una transacción que la prueba deshace al terminar.
+-- Particiones de los últimos doce meses y los tres siguientes
+SELECT crear_particion_reservas((date_trunc('month', CURRENT_DATE) + make_interval(months => m))::date)
+FROM generate_series(-12, 3) AS m;
+
+-- 200 servicios, 30 gestores y 5000 clientes
+INSERT INTO servicios (nombre_servicio, precio, duracion_minutos)
+SELECT 'Servicio prueba ' || i, 100000, 30 FROM generate_series(1, 200) AS i;
+
+INSERT INTO usuarios (nombre, telefono, email, rol, activo)
+SELECT 'Gestor prueba ' || i, '0981' || lpad(i::text, 6, '0'), 'indices.gestor' || i || '@prueba.test', 'EMPLEADO', true
+FROM generate_series(1, 30) AS i;
+
+INSERT INTO usuarios (nombre, telefono, email, rol, activo)
+SELECT 'Cliente prueba ' || i, '0982' || lpad(i::text, 6, '0'), 'indices.cliente' || i || '@prueba.test', 'CLIENTE', true
+FROM generate_series(1, 5000) AS i;
+
+-- 400.000 reservas sin superposición por servicio: las pasadas finalizadas o rechazadas,
+-- las futuras confirmadas salvo una cola chica de pendientes
+CREATE TEMP TABLE ids_prueba AS
+SELECT (SELECT min(id_servicio) FROM servicios WHERE nombre_servicio LIKE 'Servicio prueba %') AS servicio,
+       (SELECT min(id_usuario) FROM usuarios WHERE email LIKE 'indices.gestor%@prueba.test') AS gestor,
+       (SELECT min(id_usuario) FROM usuarios WHERE email LIKE 'indices.cliente%@prueba.test') AS cliente;
+
+INSERT INTO reservas (id_usuario, id_servicio, fecha, hora, hora_fin, estado, creado_en, id_usuario_gestor)
+SELECT ids.cliente + (i * 37) % 5000,
+       ids.servicio + i % 200,
+       d.fecha,
+       d.hora,
+       d.hora + INTERVAL '30 minutes',
+       d.estado,
+       d.fecha - 10 + make_interval(mins => i % 1440),
+       CASE WHEN d.estado = 'Pendiente' THEN NULL ELSE ids.gestor + i % 30 END
+FROM ids_prueba ids,
+     generate_series(0, 399999) AS i,
+     LATERAL (SELECT (date_trunc('month', CURRENT_DATE) - INTERVAL '12 months')::date + (i / 200) % 455 AS fecha,
+                     TIME '08:00' + make_interval(hours => (i / 200) / 455) AS hora) AS f,
+     LATERAL (SELECT f.fecha, f.hora,
+                     CASE WHEN f.fecha < CURRENT_DATE THEN (CASE WHEN i % 7 = 0 THEN 'Rechazada' ELSE 'Finalizada' END)
+                          ELSE (CASE WHEN i % 20 = 0 THEN 'Pendiente' ELSE 'Confirmada' END) END AS estado) AS d;
+
+ANALYZE servicios;
+ANALYZE usuarios;
+ANALYZE reservas;
@@ -0,0 +1,96 @@
+package com.reservas.benchmarks;
+
+import com.reservas.dto.LoginRequest;
+import com.reservas.dto.LoginResponse;
+import com.reservas.entity.Usuario;
+import com.reservas.repository.UsuarioRepository;
+import com.reservas.service.AuthService;
+import com.reservas.service.HashContrasenaService;
+import com.reservas.service.LimiteIntentosLoginService;
+import com.reservas.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Login completo (dominado por BCrypt con la misma fuerza que SecurityConfig) y verificación de la firma del token
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutenticacionBenchmark {
+
+    private static final String EMAIL = "admin@reservas.com";
+    private static final String PASSWORD = "admin123";
+    private static final String IP = "127.0.0.1";
+
+    private AuthService authService;
+    private LoginRequest loginRequest;
+    private String token;
+
+    @Setup
+    public void preparar() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        Usuario admin = new Usuario("Administrador", "0981000000", EMAIL, Usuario.Rol.ADMINISTRADOR);
+        admin.setIdUsuario(1L);
+        admin.setPassword(encoder.encode(PASSWORD));
+
+        TokenService tokenService = new TokenService();
+        DatosGenerados.inyectar(tokenService, "secreto", "clave-de-benchmark-con-al-menos-32-bytes");
+        DatosGenerados.inyectar(tokenService, "expiracionMs", 86_400_000L);
+        DatosGenerados.inicializar(tokenService, "inicializar");
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HashContrasenaService hashContrasenaService = new HashContrasenaService();
+        DatosGenerados.inyectar(hashContrasenaService, "passwordEncoder", encoder);
+        DatosGenerados.inyectar(hashContrasenaService, "meterRegistry", registry);
+        DatosGenerados.inyectar(hashContrasenaService, "capacidadCola", 64);
+        DatosGenerados.inyectar(hashContrasenaService, "timeoutMs", 5000L);
+        DatosGenerados.inicializar(hashContrasenaService, "inicializar");
+
+        // Límites altos: se mide el costo del chequeo, no el rechazo
+        LimiteIntentosLoginService limite = new LimiteIntentosLoginService();
+        DatosGenerados.inyectar(limite, "meterRegistry", registry);
+        DatosGenerados.inyectar(limite, "capacidadEmail", Integer.MAX_VALUE);
+        DatosGenerados.inyectar(limite, "recargaEmailPorMinuto", 1e12);
+        DatosGenerados.inyectar(limite, "capacidadIp", Integer.MAX_VALUE);
+        DatosGenerados.inyectar(limite, "recargaIpPorMinuto", 1e12);
+        DatosGenerados.inicializar(limite, "inicializar");
+
+        authService = new AuthService();
+        DatosGenerados.inyectar(authService, "usuarioRepository", DatosGenerados.repositorio(UsuarioRepository.class,
+                Map.of("findByEmail", Optional.of(admin))));
+        DatosGenerados.inyectar(authService, "hashContrasenaService", hashContrasenaService);
+        DatosGenerados.inyectar(authService, "limiteIntentosLoginService", limite);
+        DatosGenerados.inyectar(authService, "tokenService", tokenService);
+
+        loginRequest = new LoginRequest();
+        loginRequest.setEmail(EMAIL);
+        loginRequest.setPassword(PASSWORD);
+        token = authService.login(loginRequest, IP).getToken();
+    }
+
+    @Benchmark
+    public LoginResponse login() {
+        return authService.login(loginRequest, IP);
+    }
+
+    @Benchmark
+    public boolean validarToken() {
+        return authService.validarToken(token);
+    }
+}
@@ -0,0 +1,126 @@
+package com.reservas.benchmarks;
+
+import com.reservas.entity.Reserva;
+import com.reservas.entity.Servicio;
+import com.reservas.entity.Usuario;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Datos sintéticos y dobles de repositorio para ejercitar los servicios reales sin base de datos.
+// La semilla es fija para que dos corridas midan exactamente los mismos datos.
+final class DatosGenerados {
+
+    static final String[] ESTADOS = {"Pendiente", "Confirmada", "Rechazada", "Finalizada"};
+    static final LocalDate FECHA_BASE = LocalDate.of(2024, 1, 1);
+
+    private DatosGenerados() {}
+
+    static List<Servicio> servicios(int cantidad) {
+        List<Servicio> servicios = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Servicio servicio = new Servicio("Servicio " + i, 50_000 + i * 1000, "Descripción del servicio " + i);
+            servicio.setIdServicio((long) i);
+            servicio.setDuracionMinutos(30 + (i % 4) * 15);
+            servicio.setActivo(true);
+            servicio.setCreatedAt(LocalDateTime.of(2023, 6, 1, 9, 0));
+            servicios.add(servicio);
+        }
+        return servicios;
+    }
+
+    static List<Reserva> reservas(int cantidad) {
+        Random random = new Random(42);
+        List<Servicio> servicios = servicios(20);
+        List<Usuario> gestores = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Usuario gestor = new Usuario("Gestor " + i, "0981000" + i, "gestor" + i + "@reservas.com", Usuario.Rol.EMPLEADO);
+            gestor.setIdUsuario((long) i);
+            gestores.add(gestor);
+        }
+
+        List<Reserva> reservas = new ArrayList<>(cantidad);
+        for (int i = 1; i <= cantidad; i++) {
+            Usuario cliente = new Usuario("Cliente " + i, String.format("0991%06d", i), "cliente" + i + "@correo.com", Usuario.Rol.CLIENTE);
+            cliente.setIdUsuario(1000L + i);
+            Reserva reserva = new Reserva(cliente, servicios.get(random.nextInt(servicios.size())),
+                    FECHA_BASE.plusDays(random.nextInt(365)), LocalTime.of(8 + random.nextInt(12), random.nextBoolean() ? 0 : 30));
+            reserva.setIdReserva((long) i);
+            reserva.setHoraFin(reserva.getHora().plusMinutes(30));
+            reserva.setEstado(ESTADOS[random.nextInt(ESTADOS.length)]);
+            reserva.setObservaciones(random.nextInt(3) == 0 ? "Observación de la reserva " + i : null);
+            reserva.setCreadoEn(LocalDateTime.of(2023, 12, 1, 10, 0).plusMinutes(i));
+            reserva.setActualizadoEn(reserva.getCreadoEn());
+            if (!"Pendiente".equals(reserva.getEstado())) {
+                reserva.setUsuarioGestor(gestores.get(random.nextInt(gestores.size())));
+            }
+            reservas.add(reserva);
+        }
+        return reservas;
+    }
+
+    // Filas [fecha, estado, idServicio, total] con la forma de ReservaRepository.countGroupedByFechaEstadoServicio
+    static List<Object[]> agregadoPorFechaEstadoServicio(int dias, int servicios) {
+        Random random = new Random(42);
+        List<Object[]> filas = new ArrayList<>(dias * servicios * ESTADOS.length);
+        for (int d = 0; d < dias; d++) {
+            LocalDate fecha = FECHA_BASE.plusDays(d);
+            for (long s = 1; s <= servicios; s++) {
+                for (String estado : ESTADOS) {
+                    filas.add(new Object[]{fecha, estado, s, (long) (1 + random.nextInt(8))});
+                }
+            }
+        }
+        return filas;
+    }
+
+    // Implementa un repositorio Spring Data respondiendo solo los métodos indicados por nombre
+    @SuppressWarnings("unchecked")
+    static <T> T repositorio(Class<T> tipo, Map<String, Object> respuestas) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            switch (metodo.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return tipo.getSimpleName() + "(benchmark)";
+                default:
+                    if (!respuestas.containsKey(metodo.getName())) {
+                        throw new UnsupportedOperationException(metodo.getName());
+                    }
+                    return respuestas.get(metodo.getName());
+            }
+        });
+    }
+
+    // Ejecuta el @PostConstruct (package-private) de un servicio armado a mano
+    static void inicializar(Object destino, String metodo) {
+        try {
+            Method init = destino.getClass().getDeclaredMethod(metodo);
+            init.setAccessible(true);
+            init.invoke(destino);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo ejecutar " + metodo, e);
+        }
+    }
+
+    // Los servicios usan inyección por campo, así que se completan a mano
+    static void inyectar(Object destino, String campo, Object valor) {
+        try {
+            Field field = destino.getClass().getDeclaredField(campo);
+            field.setAccessible(true);
+            field.set(destino, valor);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo inyectar " + campo, e);
+        }
+    }
+}
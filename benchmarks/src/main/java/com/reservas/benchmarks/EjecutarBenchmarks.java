@@ -0,0 +1,29 @@
+package com.reservas.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Punto de entrada del jar: acepta las mismas opciones que JMH y, si no se indica otra cosa,
+// guarda los resultados en JSON (jmh-resultados.json) para poder comparar corridas
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions linea = new CommandLineOptions(args);
+        if (linea.shouldHelp() || linea.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder opciones = new OptionsBuilder();
+        opciones.parent(linea);
+        if (!linea.getResultFormat().hasValue()) {
+            opciones.resultFormat(ResultFormatType.JSON);
+        }
+        if (!linea.getResult().hasValue()) {
+            opciones.result("jmh-resultados.json");
+        }
+        new Runner(opciones.build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.reservas.benchmarks;
+
+import com.reservas.config.TokenAuthenticationFilter;
+import com.reservas.entity.Usuario;
+import com.reservas.service.TokenService;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Costo por petición de TokenAuthenticationFilter: sin cabecera, token válido y token con firma alterada
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FiltroTokenBenchmark {
+
+    @Param({"sin_token", "valido", "firma_invalida"})
+    private String caso;
+
+    private TokenAuthenticationFilter filtro;
+    private String cabecera;
+
+    @Setup
+    public void preparar() {
+        TokenService tokenService = new TokenService();
+        DatosGenerados.inyectar(tokenService, "secreto", "clave-de-benchmark-con-al-menos-32-bytes");
+        DatosGenerados.inyectar(tokenService, "expiracionMs", 86_400_000L);
+        DatosGenerados.inicializar(tokenService, "inicializar");
+        filtro = new TokenAuthenticationFilter(tokenService);
+
+        Usuario usuario = new Usuario("Administrador", "0981000000", "admin@reservas.com", Usuario.Rol.ADMINISTRADOR);
+        usuario.setIdUsuario(1L);
+        String token = tokenService.emitir(usuario);
+        switch (caso) {
+            case "valido":
+                cabecera = "Bearer " + token;
+                break;
+            case "firma_invalida":
+                char ultimo = token.charAt(token.length() - 1);
+                cabecera = "Bearer " + token.substring(0, token.length() - 1) + (ultimo == 'A' ? 'B' : 'A');
+                break;
+            default:
+                cabecera = null;
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filtrar() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reservas");
+        if (cabecera != null) {
+            request.addHeader("Authorization", cabecera);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filtro.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,63 @@
+package com.reservas.benchmarks;
+
+import com.reservas.dto.ReservaResponse;
+import com.reservas.dto.ServicioResponse;
+import com.reservas.entity.Reserva;
+import com.reservas.repository.ServicioRepository;
+import com.reservas.service.ServicioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Entidad -> DTO tal como lo hacen los endpoints de listado
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapeoDtoBenchmark {
+
+    @Param({"1000", "10000"})
+    private int cantidad;
+
+    private List<Reserva> reservas;
+    private ServicioService servicioService;
+
+    @Setup
+    public void preparar() {
+        reservas = DatosGenerados.reservas(cantidad);
+
+        servicioService = new ServicioService();
+        DatosGenerados.inyectar(servicioService, "servicioRepository", DatosGenerados.repositorio(ServicioRepository.class,
+                Map.of("findAllActiveOrderByName", DatosGenerados.servicios(cantidad / 10))));
+    }
+
+    @Benchmark
+    public List<ReservaResponse> reservaResponse() {
+        List<ReservaResponse> respuesta = new ArrayList<>(reservas.size());
+        for (Reserva reserva : reservas) {
+            respuesta.add(new ReservaResponse(reserva));
+        }
+        return respuesta;
+    }
+
+    // Pasa por ServicioService.convertirADTO con el repositorio reemplazado por datos en memoria
+    @Benchmark
+    public List<ServicioResponse> serviciosActivos() {
+        return servicioService.obtenerServiciosActivos();
+    }
+}
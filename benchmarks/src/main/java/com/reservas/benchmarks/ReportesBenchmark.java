@@ -0,0 +1,75 @@
+package com.reservas.benchmarks;
+
+import com.reservas.repository.ReservaRepository;
+import com.reservas.repository.ServicioRepository;
+import com.reservas.service.ContadoresReservasService;
+import com.reservas.service.ReporteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Agregación de reportes: carga de los contadores en memoria y las consultas que sirven al dashboard
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportesBenchmark {
+
+    // Días de historia generados; cada día tiene una fila por servicio y estado
+    @Param({"365", "1825"})
+    private int dias;
+
+    @Param({"20"})
+    private int servicios;
+
+    private ContadoresReservasService contadores;
+    private ReporteService reporteService;
+
+    @Setup
+    public void preparar() {
+        contadores = new ContadoresReservasService();
+        DatosGenerados.inyectar(contadores, "reservaRepository", DatosGenerados.repositorio(ReservaRepository.class,
+                Map.of("countGroupedByFechaEstadoServicio", DatosGenerados.agregadoPorFechaEstadoServicio(dias, servicios))));
+        DatosGenerados.inyectar(contadores, "servicioRepository", DatosGenerados.repositorio(ServicioRepository.class,
+                Map.of("findAll", DatosGenerados.servicios(servicios))));
+        contadores.reconstruir();
+
+        reporteService = new ReporteService();
+        DatosGenerados.inyectar(reporteService, "contadoresReservasService", contadores);
+    }
+
+    @Benchmark
+    public ContadoresReservasService reconstruirContadores() {
+        contadores.reconstruir();
+        return contadores;
+    }
+
+    @Benchmark
+    public Map<String, Object> resumen() {
+        return reporteService.obtenerResumen();
+    }
+
+    @Benchmark
+    public List<Object[]> serviciosPopulares() {
+        return reporteService.obtenerServiciosPopulares();
+    }
+
+    @Benchmark
+    public List<Object[]> reservasMensuales() {
+        return reporteService.obtenerReservasMensuales(DatosGenerados.FECHA_BASE.getYear());
+    }
+}
@@ -0,0 +1,119 @@
+-- Migración para bases existentes: convierte reservas en tabla particionada por mes y crea reservas_historico.
+-- Requiere PostgreSQL 13+ y haber aplicado antes upgrade_sin_superposicion.sql.
+-- Ejecutar con la aplicación detenida y antes del primer arranque con Flyway: psql -d reservas_db -f database/upgrade_particiones.sql
+
+BEGIN;
+
+ALTER TABLE reservas RENAME TO reservas_anterior;
+ALTER INDEX reservas_pkey RENAME TO reservas_anterior_pkey;
+ALTER TABLE reservas_anterior RENAME CONSTRAINT reservas_sin_superposicion TO reservas_anterior_sin_superposicion;
+
+-- Se reutiliza la secuencia existente para que los ids sigan donde estaban
+CREATE TABLE reservas (
+    id_reserva BIGINT NOT NULL DEFAULT nextval('reservas_id_reserva_seq'),
+    id_usuario BIGINT REFERENCES usuarios(id_usuario),
+    id_servicio BIGINT REFERENCES servicios(id_servicio),
+    fecha DATE NOT NULL,
+    hora TIME NOT NULL,
+    hora_fin TIME NOT NULL,
+    periodo TSRANGE GENERATED ALWAYS AS (tsrange(fecha + hora, fecha + hora_fin, '[)')) STORED,
+    estado VARCHAR(20) DEFAULT 'Pendiente' CHECK (estado IN ('Pendiente', 'Confirmada', 'Rechazada', 'Finalizada')),
+    observaciones TEXT,
+    creado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    actualizado_en TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    id_usuario_gestor BIGINT REFERENCES usuarios(id_usuario),
+    PRIMARY KEY (id_reserva, fecha)
+) PARTITION BY RANGE (fecha);
+
+CREATE TABLE reservas_default PARTITION OF reservas DEFAULT;
+ALTER TABLE reservas_default ADD CONSTRAINT reservas_default_sin_superposicion
+    EXCLUDE USING gist (id_servicio WITH =, periodo WITH &&) WHERE (estado IN ('Pendiente', 'Confirmada'));
+
+CREATE TABLE reservas_historico (LIKE reservas INCLUDING DEFAULTS INCLUDING GENERATED) PARTITION BY RANGE (fecha);
+
+-- Funciones de mantenimiento (las mismas que crea la migración V1)
+
+-- Crea la partición del mes que contiene p_mes con su restricción de no superposición.
+-- PostgreSQL no admite restricciones de exclusión sobre la tabla particionada, pero una reserva nunca cruza
+-- de un día a otro, así que dos reservas superpuestas siempre caen en la misma partición.
+-- Si reservas_default ya tiene filas de ese mes, las mueve a la partición nueva. Devuelve false si ya existía.
+CREATE OR REPLACE FUNCTION crear_particion_reservas(p_mes DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    desde DATE := date_trunc('month', p_mes)::date;
+    hasta DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'reservas_' || to_char(p_mes, 'YYYY_MM');
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    CREATE TEMP TABLE reservas_a_mover AS
+        SELECT id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+               creado_en, actualizado_en, id_usuario_gestor
+        FROM reservas_default
+        WHERE fecha >= desde AND fecha < hasta;
+    DELETE FROM reservas_default WHERE fecha >= desde AND fecha < hasta;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF reservas FOR VALUES FROM (%L) TO (%L)', nombre, desde, hasta);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist (id_servicio WITH =, periodo WITH &&) '
+                   'WHERE (estado IN (''Pendiente'', ''Confirmada''))', nombre, nombre || '_sin_superposicion');
+
+    INSERT INTO reservas (id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+                          creado_en, actualizado_en, id_usuario_gestor)
+        SELECT * FROM reservas_a_mover;
+    DROP TABLE reservas_a_mover;
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Pasa la partición del mes de p_mes de reservas a reservas_historico: se desprende y se vuelve a adjuntar,
+-- sin copiar filas. No archiva meses que todavía tengan reservas Pendiente o Confirmada.
+CREATE OR REPLACE FUNCTION archivar_particion_reservas(p_mes DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    desde DATE := date_trunc('month', p_mes)::date;
+    hasta DATE := (date_trunc('month', p_mes) + INTERVAL '1 month')::date;
+    nombre TEXT := 'reservas_' || to_char(p_mes, 'YYYY_MM');
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                   WHERE i.inhparent = 'reservas'::regclass AND c.relname = nombre) THEN
+        RETURN false;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM reservas WHERE fecha >= desde AND fecha < hasta
+               AND estado IN ('Pendiente', 'Confirmada')) THEN
+        RAISE NOTICE 'La partición % tiene reservas activas, no se archiva', nombre;
+        RETURN false;
+    END IF;
+
+    EXECUTE format('ALTER TABLE reservas DETACH PARTITION %I', nombre);
+    EXECUTE format('ALTER TABLE reservas_historico ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', nombre, desde, hasta);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Una partición por cada mes con datos, más tres meses hacia adelante
+SELECT crear_particion_reservas(mes::date)
+FROM generate_series(
+        date_trunc('month', LEAST((SELECT MIN(fecha) FROM reservas_anterior), CURRENT_DATE)),
+        date_trunc('month', CURRENT_DATE) + INTERVAL '3 months',
+        INTERVAL '1 month') AS mes;
+
+INSERT INTO reservas (id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+                      creado_en, actualizado_en, id_usuario_gestor)
+SELECT id_reserva, id_usuario, id_servicio, fecha, hora, hora_fin, estado, observaciones,
+       creado_en, actualizado_en, id_usuario_gestor
+FROM reservas_anterior;
+
+ALTER SEQUENCE reservas_id_reserva_seq OWNED BY reservas.id_reserva;
+DROP TABLE reservas_anterior;
+
+CREATE INDEX idx_reservas_fecha ON reservas(fecha);
+CREATE INDEX idx_reservas_fecha_hora_id ON reservas(fecha, hora, id_reserva);
+CREATE INDEX idx_reservas_estado ON reservas(estado);
+CREATE INDEX idx_reservas_usuario ON reservas(id_usuario);
+
+CREATE TRIGGER update_reservas_modtime
+    BEFORE UPDATE ON reservas
+    FOR EACH ROW EXECUTE FUNCTION update_modified_column();
+
+COMMIT;
@@ -0,0 +1,31 @@
+-- Migración para bases existentes: agrega hora_fin y la restricción que impide reservas superpuestas.
+-- Ejecutar con la aplicación detenida y antes del primer arranque con Flyway: psql -d reservas_db -f database/upgrade_sin_superposicion.sql
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservas ADD COLUMN IF NOT EXISTS hora_fin TIME;
+
+-- Completar hora_fin con la duración actual del servicio (recortada al final del día)
+UPDATE reservas r
+SET hora_fin = CASE
+        WHEN EXTRACT(EPOCH FROM r.hora) + COALESCE(s.duracion_minutos, 60) * 60 >= 86400
+        THEN TIME '23:59:59.999999'
+        ELSE r.hora + make_interval(mins => COALESCE(s.duracion_minutos, 60))
+    END
+FROM servicios s
+WHERE s.id_servicio = r.id_servicio
+  AND r.hora_fin IS NULL;
+
+ALTER TABLE reservas ALTER COLUMN hora_fin SET NOT NULL;
+
+ALTER TABLE reservas ADD COLUMN IF NOT EXISTS periodo TSRANGE
+    GENERATED ALWAYS AS (tsrange(fecha + hora, fecha + hora_fin, '[)')) STORED;
+
+-- Si esta sentencia falla, existen reservas activas superpuestas. Para listarlas:
+--   SELECT a.id_reserva, b.id_reserva FROM reservas a JOIN reservas b
+--     ON a.id_servicio = b.id_servicio AND a.id_reserva < b.id_reserva AND a.periodo && b.periodo
+--   WHERE a.estado IN ('Pendiente', 'Confirmada') AND b.estado IN ('Pendiente', 'Confirmada');
+-- y rechazar una de cada par antes de reintentar.
+ALTER TABLE reservas ADD CONSTRAINT reservas_sin_superposicion
+    EXCLUDE USING gist (id_servicio WITH =, periodo WITH &&)
+    WHERE (estado IN ('Pendiente', 'Confirmada'));
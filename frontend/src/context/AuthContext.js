@@ -60,6 +60,11 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revoca el token en el servidor; la sesión local se cierra igual aunque falle
+    const token = localStorage.getItem('token');
+    if (token) {
+      authApi.logout(token).catch(() => {});
+    }
     localStorage.removeItem('token');
     localStorage.removeItem('user');
     setUser(null);
@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { useAuth } from '../context/AuthContext';
 import { useNavigate } from 'react-router-dom';
-import { reservasApi, serviciosApi, usuariosApi } from '../services/api';
+import { reservasApi, reportesApi, serviciosApi, usuariosApi, busquedaApi } from '../services/api';
 import toast from 'react-hot-toast';
 import NuevaReservaModal from '../components/NuevaReservaModal';
 import ServicioModal from '../components/ServicioModal';
@@ -133,6 +133,8 @@ const Dashboard = () => {
     toast.success('Permisos restablecidos a la configuración por defecto');
   };
   const [reservas, setReservas] = useState([]);
+  const [siguienteCursor, setSiguienteCursor] = useState(null);
+  const [loadingMas, setLoadingMas] = useState(false);
   const [servicios, setServicios] = useState([]);
   const [usuarios, setUsuarios] = useState([]);
   const [loading, setLoading] = useState(true);
@@ -150,6 +152,8 @@ const Dashboard = () => {
   const [confirmLoading, setConfirmLoading] = useState(false);
   const [activeConfigTab, setActiveConfigTab] = useState('general');
   const [rolePermissions, setRolePermissions] = useState(PERMISSIONS);
+  const [busquedaClientes, setBusquedaClientes] = useState('');
+  const [resultadosClientes, setResultadosClientes] = useState(null);
   const [stats, setStats] = useState({
     total: 0,
     pendientes: 0,
@@ -182,21 +186,37 @@ const Dashboard = () => {
     }
   }, [activeTab]);
 
+  // Búsqueda de clientes en el servidor (GET /api/buscar); con menos de 3 caracteres se muestran los de las reservas cargadas
+  useEffect(() => {
+    const texto = busquedaClientes.trim();
+    if (texto.length < 3) {
+      setResultadosClientes(null);
+      return;
+    }
+    let vigente = true;
+    const temporizador = setTimeout(async () => {
+      try {
+        const response = await busquedaApi.buscar({ q: texto, tipo: 'cliente' });
+        if (vigente) {
+          setResultadosClientes(response.data.resultados);
+        }
+      } catch (error) {
+        console.error('Error al buscar clientes:', error);
+      }
+    }, 300);
+    return () => {
+      vigente = false;
+      clearTimeout(temporizador);
+    };
+  }, [busquedaClientes]);
+
   const cargarReservas = async () => {
     try {
       setLoading(true);
       const response = await reservasApi.obtenerReservas();
-      const reservasData = response.data;
-      setReservas(reservasData);
-      
-      // Calcular estadísticas
-      const stats = {
-        total: reservasData.length,
-        pendientes: reservasData.filter(r => r.estado === 'Pendiente').length,
-        confirmadas: reservasData.filter(r => r.estado === 'Confirmada').length,
-        rechazadas: reservasData.filter(r => r.estado === 'Rechazada').length
-      };
-      setStats(stats);
+      setReservas(response.data);
+      setSiguienteCursor(response.headers['x-siguiente-cursor'] || null);
+      await cargarResumen();
     } catch (error) {
       console.error('Error al cargar reservas:', error);
       toast.error('Error al cargar las reservas');
@@ -205,6 +225,64 @@ const Dashboard = () => {
     }
   };
 
+  // Las estadísticas vienen del resumen, el listado solo trae la primera página
+  const cargarResumen = async () => {
+    try {
+      const resumen = await reportesApi.obtenerResumen();
+      setStats({
+        total: resumen.data.totalReservas,
+        pendientes: resumen.data.reservasPendientes,
+        confirmadas: resumen.data.reservasConfirmadas,
+        rechazadas: resumen.data.reservasRechazadas
+      });
+    } catch (error) {
+      console.error('Error al cargar el resumen:', error);
+    }
+  };
+
+  const reemplazarReserva = (reservaActualizada) => {
+    setReservas(prev => prev.map(r => r.idReserva === reservaActualizada.idReserva ? { ...r, ...reservaActualizada } : r));
+  };
+
+  // Cambios hechos por otros usuarios llegan por SSE y se aplican sobre la lista ya cargada
+  useEffect(() => {
+    if (!isAuthenticated() || !isAdmin()) return;
+
+    const eventos = new EventSource(reservasApi.urlEventos);
+    const aplicarEvento = async (evento) => {
+      const datos = JSON.parse(evento.data);
+      if (datos.tipo === 'creada') {
+        try {
+          const response = await reservasApi.obtenerReservaPorId(datos.idReserva);
+          setReservas(prev => prev.some(r => r.idReserva === datos.idReserva) ? prev : [response.data, ...prev]);
+        } catch (error) {
+          console.error('Error al cargar la reserva nueva:', error);
+        }
+      } else {
+        reemplazarReserva({ idReserva: datos.idReserva, estado: datos.estado });
+      }
+      cargarResumen();
+    };
+    ['creada', 'confirmada', 'rechazada', 'finalizada', 'actualizada'].forEach(tipo => eventos.addEventListener(tipo, aplicarEvento));
+
+    return () => eventos.close();
+  }, [isAuthenticated, isAdmin]);
+
+  const cargarMasReservas = async () => {
+    if (!siguienteCursor) return;
+    try {
+      setLoadingMas(true);
+      const response = await reservasApi.obtenerReservas({ cursor: siguienteCursor });
+      setReservas(prev => [...prev, ...response.data]);
+      setSiguienteCursor(response.headers['x-siguiente-cursor'] || null);
+    } catch (error) {
+      console.error('Error al cargar más reservas:', error);
+      toast.error('Error al cargar más reservas');
+    } finally {
+      setLoadingMas(false);
+    }
+  };
+
   const handleLogout = () => {
     logout();
     toast.success('Sesión cerrada exitosamente');
@@ -213,9 +291,10 @@ const Dashboard = () => {
 
   const confirmarReserva = async (id) => {
     try {
-      await reservasApi.confirmarReserva(id, user?.email);
+      const response = await reservasApi.confirmarReserva(id, user?.email);
       toast.success('Reserva confirmada');
-      cargarReservas();
+      reemplazarReserva(response.data);
+      cargarResumen();
     } catch (error) {
       toast.error('Error al confirmar reserva');
     }
@@ -223,9 +302,10 @@ const Dashboard = () => {
 
   const rechazarReserva = async (id) => {
     try {
-      await reservasApi.rechazarReserva(id, user?.email);
+      const response = await reservasApi.rechazarReserva(id, user?.email);
       toast.success('Reserva rechazada');
-      cargarReservas();
+      reemplazarReserva(response.data);
+      cargarResumen();
     } catch (error) {
       toast.error('Error al rechazar reserva');
     }
@@ -795,6 +875,18 @@ const Dashboard = () => {
                         </div>
                       ))}
                     </div>
+
+                    {siguienteCursor && (
+                      <div className="flex justify-center mt-6">
+                        <button
+                          onClick={cargarMasReservas}
+                          disabled={loadingMas}
+                          className="btn-secondary"
+                        >
+                          {loadingMas ? 'Cargando...' : 'Cargar más'}
+                        </button>
+                      </div>
+                    )}
                   </>
                 )}
               </div>
@@ -1487,9 +1579,27 @@ const Dashboard = () => {
                 <h3 className="text-xl font-bold text-secondary-900">Gestión de Clientes</h3>
               </div>
 
+              <div className="relative">
+                <MagnifyingGlassIcon className="w-5 h-5 absolute left-3 top-1/2 transform -translate-y-1/2 text-secondary-400" />
+                <input
+                  type="text"
+                  placeholder="Buscar clientes por nombre, email o teléfono..."
+                  className="input-field pl-10"
+                  value={busquedaClientes}
+                  onChange={(e) => setBusquedaClientes(e.target.value)}
+                />
+              </div>
+
+              {resultadosClientes && resultadosClientes.length === 0 && (
+                <p className="text-secondary-600">No se encontraron clientes</p>
+              )}
+
               <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-6">
-                {/* Extraer clientes únicos de las reservas */}
-                {[...new Map(reservas.map(r => [r.emailCliente, r])).values()].map((cliente, index) => (
+                {/* Resultados de la búsqueda o, sin búsqueda, clientes únicos de las reservas */}
+                {(resultadosClientes
+                  ? resultadosClientes.map(c => ({ nombreCliente: c.nombre, emailCliente: c.email, telefonoCliente: c.telefono }))
+                  : [...new Map(reservas.map(r => [r.emailCliente, r])).values()]
+                ).map((cliente, index) => (
                   <div key={index} className="card-hover">
                     <div className="flex items-center space-x-4">
                       <div className="w-12 h-12 bg-primary-100 rounded-full flex items-center justify-center">
@@ -1505,9 +1615,11 @@ const Dashboard = () => {
                           <PhoneIcon className="w-4 h-4 mr-1" />
                           {cliente.telefonoCliente}
                         </div>
-                        <p className="text-sm text-primary-600 font-semibold mt-2">
-                          {reservas.filter(r => r.emailCliente === cliente.emailCliente).length} reserva(s)
-                        </p>
+                        {!resultadosClientes && (
+                          <p className="text-sm text-primary-600 font-semibold mt-2">
+                            {reservas.filter(r => r.emailCliente === cliente.emailCliente).length} reserva(s)
+                          </p>
+                        )}
                       </div>
                     </div>
                   </div>
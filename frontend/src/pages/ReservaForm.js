@@ -1,14 +1,17 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
 import { useForm } from 'react-hook-form';
 import toast from 'react-hot-toast';
-import { serviciosApi, reservasApi } from '../services/api';
+import { serviciosApi, reservasApi, generarClaveIdempotencia } from '../services/api';
 import { ArrowLeftIcon } from '@heroicons/react/24/outline';
 
 const ReservaForm = () => {
   const [servicios, setServicios] = useState([]);
   const [loading, setLoading] = useState(false);
   const navigate = useNavigate();
+  // Misma clave en los reintentos tras un corte de red, así el servidor no crea la reserva dos veces.
+  // Se genera en el primer envío (no en cada render) y se descarta cuando el servidor ya resolvió la solicitud
+  const claveIdempotencia = useRef(null);
   
   const {
     register,
@@ -33,13 +36,23 @@ const ReservaForm = () => {
 
   const onSubmit = async (data) => {
     setLoading(true);
+    if (!claveIdempotencia.current) {
+      claveIdempotencia.current = generarClaveIdempotencia();
+    }
     try {
-      await reservasApi.crearReserva(data);
+      await reservasApi.crearReserva(data, claveIdempotencia.current);
+      claveIdempotencia.current = null;
       toast.success('Reserva creada exitosamente. Te contactaremos pronto!');
       reset();
       setTimeout(() => navigate('/'), 2000);
     } catch (error) {
       console.error('Error al crear reserva:', error);
+      const estado = error.response ? error.response.status : null;
+      // Sin respuesta, 409 (la original sigue en curso u horario tomado) o 5xx: el reintento repite la clave.
+      // Otro 4xx rechazó los datos: el próximo envío los corrige y necesita clave nueva
+      if (estado >= 400 && estado < 500 && estado !== 409) {
+        claveIdempotencia.current = null;
+      }
       toast.error('Error al crear la reserva. Intenta nuevamente.');
     } finally {
       setLoading(false);
@@ -25,10 +25,35 @@ export const serviciosApi = {
   eliminarServicio: (id) => api.delete(`/servicios/${id}`),
 };
 
+// crypto.randomUUID sólo existe en contextos seguros (https o localhost); en http plano se arma un UUID v4
+// con getRandomValues y, como último recurso, con Math.random
+export const generarClaveIdempotencia = () => {
+  const cripto = window.crypto;
+  if (cripto && typeof cripto.randomUUID === 'function') {
+    return cripto.randomUUID();
+  }
+  const bytes = new Uint8Array(16);
+  if (cripto && typeof cripto.getRandomValues === 'function') {
+    cripto.getRandomValues(bytes);
+  } else {
+    for (let i = 0; i < bytes.length; i++) {
+      bytes[i] = Math.floor(Math.random() * 256);
+    }
+  }
+  bytes[6] = (bytes[6] & 0x0f) | 0x40;
+  bytes[8] = (bytes[8] & 0x3f) | 0x80;
+  const hex = Array.from(bytes, (b) => b.toString(16).padStart(2, '0')).join('');
+  return `${hex.slice(0, 8)}-${hex.slice(8, 12)}-${hex.slice(12, 16)}-${hex.slice(16, 20)}-${hex.slice(20)}`;
+};
+
 export const reservasApi = {
-  crearReserva: (reserva) => api.post('/reservas', reserva),
+  crearReserva: (reserva, claveIdempotencia = null) => {
+    const headers = claveIdempotencia ? { 'Idempotency-Key': claveIdempotencia } : {};
+    return api.post('/reservas', reserva, { headers });
+  },
   obtenerReservas: (params = {}) => api.get('/reservas', { params }),
   obtenerReservaPorId: (id) => api.get(`/reservas/${id}`),
+  urlEventos: `${API_BASE_URL}/reservas/eventos`,
   confirmarReserva: (id, emailGestor = null) => {
     const params = emailGestor ? { emailGestor } : {};
     return api.put(`/reservas/${id}/confirmar`, null, { params });
@@ -39,6 +64,14 @@ export const reservasApi = {
   },
 };
 
+export const busquedaApi = {
+  buscar: (params) => api.get('/buscar', { params }),
+};
+
+export const reportesApi = {
+  obtenerResumen: () => api.get('/reportes/resumen'),
+};
+
 export const usuariosApi = {
   obtenerUsuarios: (params = {}) => api.get('/usuarios', { params }),
   obtenerUsuarioPorId: (id) => api.get(`/usuarios/${id}`),
@@ -51,6 +84,9 @@ export const usuariosApi = {
 
 export const authApi = {
   login: (credentials) => api.post('/auth/login', credentials),
+  logout: (token) => api.post('/auth/logout', {}, {
+    headers: { Authorization: `Bearer ${token}` }
+  }),
   validateToken: (token) => api.post('/auth/validate', {}, {
     headers: { Authorization: `Bearer ${token}` }
   }),